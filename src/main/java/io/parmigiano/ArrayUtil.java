@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntBinaryOperator;
 
 /**
  * A collection of array related utilities
@@ -114,6 +115,142 @@ final class ArrayUtil {
         return sorted;
     }
 
+    /**
+     * Rearrange the input so that the {@code k} smallest elements come first, in no particular order.
+     * This is a quickselect with random pivots, which runs in expected linear time.
+     * This method will modify the input array.
+     * @param a an array of distinct numbers
+     * @param k a number between {@code 0} and {@code a.length} (inclusive)
+     */
+    static void select(long[] a, int k) {
+        Random r = ThreadLocalRandom.current();
+        int m = k - 1;
+        int lo = 0;
+        int hi = a.length - 1;
+        while (lo < hi && m >= 0) {
+            long pivot = a[lo + r.nextInt(hi - lo + 1)];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    long tmp = a[i];
+                    a[i++] = a[j];
+                    a[j--] = tmp;
+                }
+            }
+            if (m <= j)
+                hi = j;
+            else if (m >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Rearrange the input so that the {@code k} smallest elements come first, in no particular order.
+     * This is a quickselect with random pivots, which runs in expected linear time.
+     * This method will modify the input array.
+     * @param a an array of distinct numbers
+     * @param k a number between {@code 0} and {@code a.length} (inclusive)
+     * @param comp a total order on the elements of {@code a}
+     */
+    static void select(int[] a, int k, IntBinaryOperator comp) {
+        Random r = ThreadLocalRandom.current();
+        int m = k - 1;
+        int lo = 0;
+        int hi = a.length - 1;
+        while (lo < hi && m >= 0) {
+            int pivot = a[lo + r.nextInt(hi - lo + 1)];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (comp.applyAsInt(a[i], pivot) < 0) i++;
+                while (comp.applyAsInt(a[j], pivot) > 0) j--;
+                if (i <= j) {
+                    int tmp = a[i];
+                    a[i++] = a[j];
+                    a[j--] = tmp;
+                }
+            }
+            if (m <= j)
+                hi = j;
+            else if (m >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Gather through an index table: {@code dst[i] = src[index[i]]} for {@code i < length}.
+     * If {@code src} and {@code index} are image tables, this writes the image table of their product.
+     * This is an unrolled scalar gather; a Vector API kernel is deferred until the
+     * build can use the incubator module.
+     * @param src the source array
+     * @param index the index table
+     * @param dst the destination array, not the same as {@code src}
+     * @param length the number of entries to write
+     */
+    static void gather(int[] src, int[] index, int[] dst, int length) {
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            int a = src[index[i]];
+            int b = src[index[i + 1]];
+            int c = src[index[i + 2]];
+            int d = src[index[i + 3]];
+            dst[i] = a;
+            dst[i + 1] = b;
+            dst[i + 2] = c;
+            dst[i + 3] = d;
+        }
+        for (; i < length; i++) {
+            dst[i] = src[index[i]];
+        }
+    }
+
+    /**
+     * Sort the input in place, using a stable merge sort.
+     * This method will modify the input array.
+     * @param a an array
+     * @param comp an order on the elements of {@code a}
+     */
+    static void sort(int[] a, IntBinaryOperator comp) {
+        int[] buffer = Arrays.copyOf(a, a.length);
+        mergeSort(buffer, a, 0, a.length, comp);
+    }
+
+    /* sorts src[from, to) into dst[from, to); both ranges must hold the same elements on entry */
+    private static void mergeSort(int[] src, int[] dst, int from, int to, IntBinaryOperator comp) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int el = dst[i];
+                int j = i - 1;
+                while (j >= from && comp.applyAsInt(dst[j], el) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = el;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dst, src, from, mid, comp);
+        mergeSort(dst, src, mid, to, comp);
+        if (comp.applyAsInt(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || p < mid && comp.applyAsInt(src[p], src[q]) <= 0)
+                dst[i] = src[p++];
+            else
+                dst[i] = src[q++];
+        }
+    }
+
     static void lengthFailure() {
         throw new IllegalArgumentException("length mismatch");
     }
@@ -0,0 +1,146 @@
+package io.parmigiano;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Centralizers and centers. In the symmetric group, the centralizer is read off from
+ * the cycle structure. In a group that is given by generators, the group is enumerated once,
+ * and each element is tested against a few permutations, rather than against every other element.
+ */
+final class Centralizer {
+
+    private Centralizer() {
+    }
+
+    /**
+     * Generators of the centralizer of {@code p} in the symmetric group on {@code 0, ..., n - 1}.
+     * For each cycle length {@code k} that occurs {@code m} times, counting fixed points as
+     * cycles of length {@code 1}, the centralizer contains the wreath product of a cyclic group
+     * of order {@code k} and the symmetric group on the {@code m} cycles. It is generated by the
+     * first cycle of that length, an exchange of the first two cycles, and a rotation of all {@code m} cycles.
+     *
+     * @param p a permutation
+     * @param n the number of points
+     * @return at most three generators per cycle length; empty if the centralizer is trivial
+     */
+    static List<Permutation> inSymmetricGroup(Permutation p, int n) {
+        checkState(n >= 0, "negative n: %d", n);
+        checkState(p.isIdentity() || p.maxMovedIndex() < n, "p moves a point outside of 0, ..., %d", n - 1);
+        int[] image = p.image(n);
+        int[][] blocks = allCycles(image);
+        // stable, so that cycles of the same length stay ordered by their least point
+        Integer[] order = new Integer[blocks.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i, j) -> Integer.compare(blocks[i].length, blocks[j].length));
+        List<Permutation> result = new ArrayList<>();
+        int from = 0;
+        while (from < order.length) {
+            int k = blocks[order[from]].length;
+            int to = from;
+            while (to < order.length && blocks[order[to]].length == k) {
+                to++;
+            }
+            int m = to - from;
+            int[] first = blocks[order[from]];
+            if (k >= 2) {
+                int[] rotation = ArrayUtil.range(n);
+                for (int j = 0; j < k; j++) {
+                    rotation[first[j]] = first[(j + 1) % k];
+                }
+                result.add(Permutation.fromImageUnchecked(rotation));
+            }
+            if (m >= 2) {
+                int[] second = blocks[order[from + 1]];
+                int[] exchange = ArrayUtil.range(n);
+                for (int j = 0; j < k; j++) {
+                    exchange[first[j]] = second[j];
+                    exchange[second[j]] = first[j];
+                }
+                result.add(Permutation.fromImageUnchecked(exchange));
+            }
+            if (m >= 3) {
+                int[] shift = ArrayUtil.range(n);
+                for (int b = from; b < to; b++) {
+                    int[] source = blocks[order[b]];
+                    int[] target = blocks[order[b + 1 == to ? from : b + 1]];
+                    for (int j = 0; j < k; j++) {
+                        shift[source[j]] = target[j];
+                    }
+                }
+                result.add(Permutation.fromImageUnchecked(shift));
+            }
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * The elements of the group generated by {@code generators} that commute with every permutation in {@code with}.
+     *
+     * @param with some permutations
+     * @param generators some permutations
+     * @return the elements that commute with all of {@code with}, in the order of {@link Closure#closure}
+     */
+    static List<Permutation> commuting(Permutation[] with, Permutation... generators) {
+        List<Permutation> group = Closure.closure(generators);
+        int n = 0;
+        for (Permutation g : generators) {
+            if (!g.isIdentity()) {
+                n = Math.max(n, g.maxMovedIndex() + 1);
+            }
+        }
+        for (Permutation w : with) {
+            if (!w.isIdentity()) {
+                n = Math.max(n, w.maxMovedIndex() + 1);
+            }
+        }
+        int[][] images = new int[with.length][];
+        for (int i = 0; i < with.length; i++) {
+            images[i] = with[i].image(n);
+        }
+        List<Permutation> result = new ArrayList<>();
+        for (Permutation x : group) {
+            int[] xi = x.image(n);
+            if (commutes(xi, images)) {
+                result.add(x);
+            }
+        }
+        return result;
+    }
+
+    private static boolean commutes(int[] x, int[][] images) {
+        for (int[] w : images) {
+            for (int i = 0; i < x.length; i++) {
+                if (x[w[i]] != w[x[i]]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /* all cycles of an image table, including fixed points, ordered by their least point */
+    private static int[][] allCycles(int[] image) {
+        boolean[] seen = new boolean[image.length];
+        List<int[]> result = new ArrayList<>();
+        int[] buffer = new int[image.length];
+        for (int i = 0; i < image.length; i++) {
+            if (seen[i]) {
+                continue;
+            }
+            int length = 0;
+            for (int j = i; !seen[j]; j = image[j]) {
+                seen[j] = true;
+                buffer[length++] = j;
+            }
+            result.add(Arrays.copyOf(buffer, length));
+        }
+        return result.toArray(new int[0][]);
+    }
+}
@@ -0,0 +1,126 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+
+/**
+ * <p>A product of permutations that is not evaluated until it is applied.
+ * Composing a chain only records the factor, so no intermediate cycles are built.
+ *
+ * <p>The first array application threads the input through the factors, in place on a single copy.
+ * If the chain is applied to an array again, the image table of the product is computed
+ * and kept, and later applications are a single pass over it.
+ *
+ * <p>The factors cannot be changed, and instances can be shared between threads.
+ *
+ * @see Permutation#chain(Permutation...)
+ */
+public final class Chain {
+
+    private final Permutation[] factors;
+    private final int length; // one more than the largest moved index, or 0
+
+    // caches; both are volatile because a chain may be shared between threads
+    private volatile boolean applied;
+    private volatile int[] image;
+
+    Chain(Permutation[] factors) {
+        this.factors = factors;
+        int result = 0;
+        for (Permutation p : factors) {
+            if (!p.isIdentity()) {
+                result = Math.max(result, p.maxMovedIndex() + 1);
+            }
+        }
+        this.length = result;
+    }
+
+    /**
+     * Append a factor, without evaluating the product.
+     *
+     * @param other a permutation
+     * @return a new chain, equivalent to {@code toPermutation().compose(other)}
+     */
+    public Chain compose(Permutation other) {
+        Permutation[] newFactors = Arrays.copyOf(factors, factors.length + 1);
+        newFactors[factors.length] = other;
+        return new Chain(newFactors);
+    }
+
+    /**
+     * Move an index through each factor, starting with the last one.
+     *
+     * @param n a non-negative number
+     * @return the moved index, the same as {@code toPermutation().apply(n)}
+     * @throws java.lang.IllegalArgumentException if {@code n} is negative
+     */
+    public int apply(int n) {
+        Preconditions.checkState(n >= 0, "negative index: %d", n);
+        int[] table = image;
+        if (table != null) {
+            return n < table.length ? table[n] : n;
+        }
+        for (int i = factors.length - 1; i >= 0; i--) {
+            n = factors[i].apply(n);
+        }
+        return n;
+    }
+
+    /**
+     * Apply the product to produce a new array. This method does not modify the input.
+     *
+     * @param a an array of length not less than {@code toPermutation().length()}
+     * @return the same as {@code toPermutation().apply(a)}
+     * @throws java.lang.IllegalArgumentException if {@code a} is too short
+     */
+    public int[] apply(int[] a) {
+        ArrayUtil.checkLength(length, a.length);
+        int[] table = image;
+        if (table == null && applied) {
+            table = image();
+        }
+        applied = true;
+        if (table == null) {
+            int[] result = Arrays.copyOf(a, a.length);
+            for (int i = factors.length - 1; i >= 0; i--) {
+                factors[i].applyInPlace(result);
+            }
+            return result;
+        }
+        int[] result = Arrays.copyOf(a, a.length);
+        for (int i = 0; i < table.length; i++) {
+            result[table[i]] = a[i];
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the product.
+     *
+     * @return the same as {@code Permutation.product(factors)}
+     */
+    public Permutation toPermutation() {
+        if (length == 0) {
+            return Permutation.identity();
+        }
+        return Permutation.fromImageUnchecked(image());
+    }
+
+    private int[] image() {
+        int[] result = image;
+        if (result == null) {
+            result = ArrayUtil.range(length);
+            int[] buffer = new int[length];
+            for (int i = factors.length - 1; i >= 0; i--) {
+                if (factors[i].isIdentity()) {
+                    continue;
+                }
+                ArrayUtil.gather(factors[i].image(length), result, buffer, length);
+                int[] swap = result;
+                result = buffer;
+                buffer = swap;
+            }
+            image = result;
+        }
+        return result;
+    }
+}
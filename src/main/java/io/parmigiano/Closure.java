@@ -0,0 +1,279 @@
+package io.parmigiano;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enumeration of the group generated by some permutations, by breadth-first search.
+ * Group elements are stored as image tables, packed into {@code long} words, and
+ * deduplicated in a segmented open-addressing hash set. Each level of the search is
+ * expanded in parallel on a {@link ForkJoinPool}; the segments are locked separately.
+ * The segments also hold the result: each element is stored once, and the returned list
+ * reads the elements level by level, in the order in which they were added.
+ */
+final class Closure {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int CHUNK = 256; // frontier elements per task
+
+    private final int n;
+    private final int[][] generators; // image tables
+    private final int bitsPerEntry;
+    private final int entriesPerWord;
+    private final int words; // words per element
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    private Closure(int n, int[][] generators) {
+        this.n = n;
+        this.generators = generators;
+        this.bitsPerEntry = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        this.entriesPerWord = 64 / bitsPerEntry;
+        this.words = (n + entriesPerWord - 1) / entriesPerWord;
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = new Segment();
+        }
+    }
+
+    /**
+     * Enumerate the group generated by the input permutations.
+     *
+     * @param generators some permutations
+     * @return all elements of the generated group, in breadth-first order, starting with the identity
+     */
+    static List<Permutation> closure(Permutation... generators) {
+        int n = 0;
+        for (Permutation g : generators) {
+            if (!g.isIdentity()) {
+                n = Math.max(n, g.maxMovedIndex() + 1);
+            }
+        }
+        if (n == 0) {
+            return List.of(Permutation.identity());
+        }
+        int[][] images = new int[generators.length][];
+        for (int g = 0; g < generators.length; g++) {
+            images[g] = generators[g].image(n);
+        }
+        return new Closure(n, images).run();
+    }
+
+    private List<Permutation> run() {
+        long[] row = new long[words];
+        encode(ArrayUtil.range(n), row);
+        segmentOf(hash(row)).add(row);
+        long[] frontier = row;
+        // the result is stored only in the segments; each level adds one run per segment,
+        // and the runs in order are the breadth-first order
+        Runs runs = new Runs();
+        long total = 0;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        while (true) {
+            int added = 0;
+            for (int s = 0; s < segments.length; s++) {
+                Segment segment = segments[s];
+                if (segment.fresh > 0) {
+                    runs.add(s, segment.size - segment.fresh, (int) total);
+                    added += segment.fresh;
+                    total += segment.fresh;
+                }
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("group is too large");
+            }
+            if (added == 0) {
+                break;
+            }
+            if (frontier == null) {
+                frontier = new long[Math.multiplyExact(added, words)];
+                int pos = 0;
+                for (Segment segment : segments) {
+                    System.arraycopy(segment.data, (segment.size - segment.fresh) * words, frontier, pos, segment.fresh * words);
+                    pos += segment.fresh * words;
+                }
+            }
+            for (Segment segment : segments) {
+                segment.fresh = 0;
+            }
+            pool.invoke(new Expand(frontier, 0, frontier.length / words));
+            frontier = null;
+        }
+        for (Segment segment : segments) {
+            segment.table = null; // only the data is needed from now on
+        }
+        return new Elements(runs, (int) total);
+    }
+
+    /* runs of consecutive elements in a segment: segment, first element in the segment, and position in the result */
+    private static final class Runs {
+
+        int[] segment = new int[64];
+        int[] start = new int[64];
+        int[] offset = new int[64];
+        int size;
+
+        void add(int s, int first, int position) {
+            if (size == segment.length) {
+                segment = Arrays.copyOf(segment, 2 * size);
+                start = Arrays.copyOf(start, 2 * size);
+                offset = Arrays.copyOf(offset, 2 * size);
+            }
+            segment[size] = s;
+            start[size] = first;
+            offset[size] = position;
+            size++;
+        }
+
+        /* the last run that starts at or before the given position */
+        int find(int position) {
+            int k = Arrays.binarySearch(offset, 0, size, position);
+            return k >= 0 ? k : -k - 2;
+        }
+    }
+
+    /* multiplies the frontier elements from, ..., to - 1 by each generator */
+    private final class Expand extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] frontier;
+        private final int from;
+        private final int to;
+
+        Expand(long[] frontier, int from, int to) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Expand(frontier, from, mid), new Expand(frontier, mid, to));
+                return;
+            }
+            int[] image = new int[n];
+            int[] product = new int[n];
+            long[] row = new long[words];
+            for (int e = from; e < to; e++) {
+                decode(frontier, e * words, image);
+                for (int[] g : generators) {
+                    ArrayUtil.gather(image, g, product, n);
+                    encode(product, row);
+                    segmentOf(hash(row)).add(row);
+                }
+            }
+        }
+    }
+
+    private Segment segmentOf(int hash) {
+        return segments[hash >>> (32 - SEGMENT_BITS)];
+    }
+
+    private void encode(int[] image, long[] row) {
+        Arrays.fill(row, 0);
+        for (int i = 0; i < n; i++) {
+            row[i / entriesPerWord] |= (long) image[i] << (bitsPerEntry * (i % entriesPerWord));
+        }
+    }
+
+    private void decode(long[] data, int offset, int[] image) {
+        long mask = (1L << bitsPerEntry) - 1;
+        for (int i = 0; i < n; i++) {
+            image[i] = (int) ((data[offset + i / entriesPerWord] >>> (bitsPerEntry * (i % entriesPerWord))) & mask);
+        }
+    }
+
+    private int hash(long[] row) {
+        long h = 0;
+        for (long word : row) {
+            h = (h + word) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * A part of the hash set. The elements are stored consecutively in {@code data};
+     * the last {@code fresh} elements were added during the current level.
+     */
+    private final class Segment {
+
+        private long[] data = new long[0];
+        private int size;
+        private int fresh;
+        private int[] table = new int[16]; // element number + 1, or 0 if empty
+
+        synchronized void add(long[] row) {
+            if (2 * (size + 1) > table.length) {
+                rehash();
+            }
+            int mask = table.length - 1;
+            for (int slot = hash(row) & mask; ; slot = (slot + 1) & mask) {
+                int e = table[slot] - 1;
+                if (e < 0) {
+                    if ((size + 1) * words > data.length) {
+                        if ((long) (size + 1) * words > Integer.MAX_VALUE - 8) {
+                            throw new IllegalArgumentException("group is too large");
+                        }
+                        data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16L * words, 2L * data.length)));
+                    }
+                    System.arraycopy(row, 0, data, size * words, words);
+                    table[slot] = ++size;
+                    fresh++;
+                    return;
+                }
+                if (Arrays.equals(data, e * words, (e + 1) * words, row, 0, words)) {
+                    return;
+                }
+            }
+        }
+
+        private void rehash() {
+            int[] newTable = new int[2 * table.length];
+            int mask = newTable.length - 1;
+            long[] row = new long[words];
+            for (int e = 0; e < size; e++) {
+                System.arraycopy(data, e * words, row, 0, words);
+                int slot = hash(row) & mask;
+                while (newTable[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable[slot] = e + 1;
+            }
+            table = newTable;
+        }
+    }
+
+    /* decodes the elements on demand */
+    private final class Elements extends AbstractList<Permutation> implements RandomAccess {
+
+        private final Runs runs;
+        private final int size;
+
+        Elements(Runs runs, int size) {
+            this.runs = runs;
+            this.size = size;
+        }
+
+        @Override
+        public Permutation get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int k = runs.find(index);
+            Segment segment = segments[runs.segment[k]];
+            int[] image = new int[n];
+            decode(segment.data, (runs.start[k] + index - runs.offset[k]) * words, image);
+            return Permutation.fromImageUnchecked(image);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.parmigiano;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A column of primitive sort keys, together with a sort direction.
+ * Used to sort columnar data by several keys without boxing,
+ * see {@link Permutation#sorting(Column...)}.
+ * The column is backed by the array; the array is not copied.
+ *
+ * <p>Floating point keys are ordered like {@link Double#compare(double, double)}:
+ * {@code -0.0} comes before {@code 0.0}, and {@code NaN} comes after all other values
+ * in an ascending column.
+ */
+public final class Column {
+
+    private final int length;
+    private final IntBinaryOperator comparator;
+
+    private Column(int length, IntBinaryOperator comparator) {
+        this.length = length;
+        this.comparator = comparator;
+    }
+
+    public static Column ascending(int[] a) {
+        return new Column(a.length, (i, j) -> Integer.compare(a[i], a[j]));
+    }
+
+    public static Column ascending(long[] a) {
+        return new Column(a.length, (i, j) -> Long.compare(a[i], a[j]));
+    }
+
+    public static Column ascending(double[] a) {
+        return new Column(a.length, (i, j) -> Double.compare(a[i], a[j]));
+    }
+
+    public static Column ascending(float[] a) {
+        return new Column(a.length, (i, j) -> Float.compare(a[i], a[j]));
+    }
+
+    public static Column descending(int[] a) {
+        return new Column(a.length, (i, j) -> Integer.compare(a[j], a[i]));
+    }
+
+    public static Column descending(long[] a) {
+        return new Column(a.length, (i, j) -> Long.compare(a[j], a[i]));
+    }
+
+    public static Column descending(double[] a) {
+        return new Column(a.length, (i, j) -> Double.compare(a[j], a[i]));
+    }
+
+    public static Column descending(float[] a) {
+        return new Column(a.length, (i, j) -> Float.compare(a[j], a[i]));
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Compare two rows of this column.
+     *
+     * @param i a row index
+     * @param j another row index
+     * @return a negative number, zero, or a positive number if row {@code i} comes before,
+     * ties with, or comes after row {@code j}
+     */
+    int compare(int i, int j) {
+        return comparator.applyAsInt(i, j);
+    }
+}
@@ -0,0 +1,13 @@
+package io.parmigiano;
+
+/**
+ * A square sparse matrix, or a graph, in compressed sparse row form.
+ * The entries of row {@code i} are at positions {@code rowPtr[i], ..., rowPtr[i + 1] - 1}
+ * of {@code colIdx} and {@code values}.
+ *
+ * @param rowPtr row offsets, of length {@code n + 1}
+ * @param colIdx column index of each entry
+ * @param values value of each entry, or {@code null} for a graph or a sparsity pattern
+ */
+public record CsrMatrix(int[] rowPtr, int[] colIdx, double[] values) {
+}
@@ -0,0 +1,145 @@
+package io.parmigiano;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Reading and writing of cycle notation, as in {@code (0 1 2) (3 4)}.
+ * The identity is written as {@code id}.
+ */
+final class CycleNotation {
+
+    private CycleNotation() {
+    }
+
+    /**
+     * Write the cycles in cycle notation, without creating intermediate strings.
+     *
+     * @param cycles the nontrivial cycles of a permutation
+     * @param out the destination
+     * @throws IOException if {@code out} throws
+     */
+    static void append(int[][] cycles, Appendable out) throws IOException {
+        if (cycles.length == 0) {
+            out.append("id");
+            return;
+        }
+        for (int i = 0; i < cycles.length; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append('(');
+            int[] cycle = cycles[i];
+            for (int j = 0; j < cycle.length; j++) {
+                if (j > 0) {
+                    out.append(' ');
+                }
+                appendInt(cycle[j], out);
+            }
+            out.append(')');
+        }
+    }
+
+    private static void appendInt(int n, Appendable out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            sb.append(n);
+            return;
+        }
+        if (n < 10) {
+            out.append((char) ('0' + n));
+            return;
+        }
+        appendInt(n / 10, out);
+        out.append((char) ('0' + n % 10));
+    }
+
+    /**
+     * Parse cycle notation. Cycles are separated by optional whitespace,
+     * and the entries of a cycle are separated by whitespace.
+     * Cycles of length one are allowed and ignored.
+     *
+     * @param s a string like {@code (0 1 2) (3 4)}, or {@code id}
+     * @return the nontrivial cycles
+     * @throws IllegalArgumentException if {@code s} can not be parsed,
+     * or if an index appears more than once, including in a cycle of length one
+     */
+    static int[][] parse(CharSequence s) {
+        int pos = skipWhitespace(s, 0);
+        if (pos + 2 <= s.length() && s.charAt(pos) == 'i' && s.charAt(pos + 1) == 'd') {
+            pos = skipWhitespace(s, pos + 2);
+            if (pos != s.length()) {
+                throw parseFailure(s, pos);
+            }
+            return new int[0][];
+        }
+        int[][] cycles = new int[4][];
+        int numCycles = 0;
+        int[] buffer = new int[8];
+        Set<Integer> seen = new HashSet<>();
+        if (pos == s.length()) {
+            throw parseFailure(s, pos);
+        }
+        while (pos < s.length()) {
+            if (s.charAt(pos) != '(') {
+                throw parseFailure(s, pos);
+            }
+            pos = skipWhitespace(s, pos + 1);
+            int length = 0;
+            while (pos < s.length() && s.charAt(pos) != ')') {
+                int start = pos;
+                long n = 0;
+                while (pos < s.length() && isDigit(s.charAt(pos))) {
+                    n = 10 * n + (s.charAt(pos) - '0');
+                    if (n > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("index too large at position " + start + ": " + s);
+                    }
+                    pos++;
+                }
+                if (pos == start) {
+                    throw parseFailure(s, pos);
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, 2 * length);
+                }
+                checkState(seen.add((int) n), "duplicate index: %d", (int) n);
+                buffer[length++] = (int) n;
+                int next = skipWhitespace(s, pos);
+                if (next == pos && next < s.length() && s.charAt(next) != ')') {
+                    throw parseFailure(s, next);
+                }
+                pos = next;
+            }
+            if (pos == s.length() || length == 0) {
+                throw parseFailure(s, pos);
+            }
+            pos = skipWhitespace(s, pos + 1);
+            if (length == 1) {
+                continue; // fixed point
+            }
+            if (numCycles == cycles.length) {
+                cycles = Arrays.copyOf(cycles, 2 * numCycles);
+            }
+            cycles[numCycles++] = Arrays.copyOf(buffer, length);
+        }
+        return Arrays.copyOf(cycles, numCycles);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipWhitespace(CharSequence s, int pos) {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static IllegalArgumentException parseFailure(CharSequence s, int pos) {
+        return new IllegalArgumentException("invalid cycle notation at position " + pos + ": " + s);
+    }
+}
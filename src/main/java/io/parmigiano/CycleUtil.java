@@ -1,9 +1,8 @@
 package io.parmigiano;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.function.IntUnaryOperator;
 
 import static io.parmigiano.Rankings.checkRanking;
@@ -14,27 +13,41 @@ final class CycleUtil {
     }
 
     /**
-     * Find all nontrivial cycles in the input ranking.
+     * Find all nontrivial cycles in the input ranking, in linear time.
      *
      * @param ranking a ranking
      * @return an array of all nontrivial orbits in the input ranking
+     * @throws java.lang.IllegalArgumentException if {@code ranking} is not a valid ranking
      */
     static int[][] toOrbits(int[] ranking) {
         checkRanking(ranking);
-        List<int[]> orbits = new ArrayList<>();
-        Set<Integer> done = new HashSet<>();
-        for (int i = 0; i < ranking.length; i += 1) {
-            if (done.contains(i)) {
+        return cycles(ranking);
+    }
+
+    /**
+     * Find all nontrivial cycles in the input ranking, in linear time.
+     * This method does not check if the input is indeed a ranking.
+     *
+     * @param ranking a ranking
+     * @return an array of all nontrivial orbits in the input ranking
+     */
+    static int[][] cycles(int[] ranking) {
+        boolean[] done = new boolean[ranking.length];
+        int[] buffer = new int[ranking.length];
+        int[][] result = new int[ranking.length / 2][];
+        int numCycles = 0;
+        for (int i = 0; i < ranking.length; i++) {
+            if (done[i] || ranking[i] == i) {
                 continue;
             }
-            List<Integer> newCycle = chaseCycle(i, n -> ranking[n]);
-            if (newCycle.isEmpty()) {
-                continue;
+            int length = 0;
+            for (int j = i; !done[j]; j = ranking[j]) {
+                done[j] = true;
+                buffer[length++] = j;
             }
-            done.addAll(newCycle);
-            orbits.add(newCycle.stream().mapToInt(p -> p).toArray());
+            result[numCycles++] = Arrays.copyOf(buffer, length);
         }
-        return orbits.toArray(new int[0][]);
+        return Arrays.copyOf(result, numCycles);
     }
 
     static int[] rotateToIndex(int[] a, int n) {
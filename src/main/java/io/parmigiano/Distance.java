@@ -0,0 +1,172 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Distance metrics between permutations.
+ * For permutations {@code p} and {@code q}, each metric is computed from the
+ * relative permutation {@code s}, defined by {@code s[p.apply(i)] == q.apply(i)}.
+ * All metrics are right-invariant, so they do not depend on how many fixed points are considered.
+ */
+public enum Distance {
+
+    /**
+     * The number of pairs that are ordered differently by {@code p} and {@code q}.
+     * Computed by inversion counting in time {@code O(n log n)}.
+     */
+    KENDALL_TAU {
+        @Override
+        long compute(int[] s) {
+            return countInversions(Arrays.copyOf(s, s.length), new int[s.length], 0, s.length);
+        }
+    },
+
+    /**
+     * The minimal number of transpositions that turn {@code p} into {@code q}.
+     * Computed by counting cycles in time {@code O(n)}.
+     */
+    CAYLEY {
+        @Override
+        long compute(int[] s) {
+            boolean[] seen = new boolean[s.length];
+            long cycles = 0;
+            for (int i = 0; i < s.length; i++) {
+                if (seen[i]) {
+                    continue;
+                }
+                cycles++;
+                for (int j = i; !seen[j]; j = s[j]) {
+                    seen[j] = true;
+                }
+            }
+            return s.length - cycles;
+        }
+    },
+
+    /**
+     * The minimal number of moves of a single element that turn {@code p} into {@code q}.
+     * Computed via the longest increasing subsequence in time {@code O(n log n)}.
+     */
+    ULAM {
+        @Override
+        long compute(int[] s) {
+            int[] tails = new int[s.length];
+            int length = 0;
+            for (int x : s) {
+                int pos = Arrays.binarySearch(tails, 0, length, x);
+                if (pos < 0) {
+                    pos = -pos - 1;
+                }
+                tails[pos] = x;
+                if (pos == length) {
+                    length++;
+                }
+            }
+            return s.length - length;
+        }
+    },
+
+    /**
+     * The sum of {@code |p.apply(i) - q.apply(i)|} over all indexes {@code i}.
+     */
+    SPEARMAN_FOOTRULE {
+        @Override
+        long compute(int[] s) {
+            long result = 0;
+            for (int k = 0; k < s.length; k++) {
+                result += Math.abs(k - s[k]);
+            }
+            return result;
+        }
+    },
+
+    /**
+     * The sum of {@code (p.apply(i) - q.apply(i))^2} over all indexes {@code i}.
+     * This is the distance underlying Spearman's rank correlation coefficient rho.
+     */
+    SPEARMAN_RHO {
+        @Override
+        long compute(int[] s) {
+            long result = 0;
+            for (int k = 0; k < s.length; k++) {
+                long d = k - s[k];
+                result += d * d;
+            }
+            return result;
+        }
+    };
+
+    abstract long compute(int[] s);
+
+    /**
+     * Compute the distance between two permutations.
+     *
+     * @param p a permutation
+     * @param q another permutation
+     * @return the distance between {@code p} and {@code q}
+     */
+    public long between(Permutation p, Permutation q) {
+        int length = length(p, q);
+        return compute(relative(p.invert().image(length), q.image(length)));
+    }
+
+    /**
+     * Compute the distances between a reference permutation and each of the candidates, in parallel.
+     *
+     * @param reference a permutation
+     * @param candidates a list of permutations
+     * @return an array of the same size as {@code candidates}, containing the distance
+     * between {@code reference} and each of the candidates
+     */
+    public long[] fromReference(Permutation reference, List<Permutation> candidates) {
+        Permutation[] array = candidates.toArray(new Permutation[0]);
+        int maxLength = length(reference, reference);
+        for (Permutation candidate : array) {
+            maxLength = Math.max(maxLength, length(candidate, candidate));
+        }
+        int[] inverse = reference.invert().image(maxLength);
+        long[] result = new long[array.length];
+        IntStream.range(0, array.length).parallel().forEach(c -> {
+            int length = length(reference, array[c]);
+            result[c] = compute(relative(inverse, array[c].image(length)));
+        });
+        return result;
+    }
+
+    private static int length(Permutation p, Permutation q) {
+        if (p.isIdentity() && q.isIdentity()) {
+            return 0;
+        }
+        return Math.max(p.maxMovedIndex(), q.maxMovedIndex()) + 1;
+    }
+
+    /* s[k] = b[inverse[k]] */
+    private static int[] relative(int[] inverse, int[] b) {
+        int[] s = new int[b.length];
+        for (int k = 0; k < b.length; k++) {
+            s[k] = b[inverse[k]];
+        }
+        return s;
+    }
+
+    /* sorts a[from, to) and returns the number of inversions */
+    private static long countInversions(int[] a, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return 0;
+        }
+        int mid = (from + to) >>> 1;
+        long result = countInversions(a, buffer, from, mid) + countInversions(a, buffer, mid, to);
+        System.arraycopy(a, from, buffer, from, to - from);
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || p < mid && buffer[p] <= buffer[q]) {
+                a[i] = buffer[p++];
+            } else {
+                result += mid - p;
+                a[i] = buffer[q++];
+            }
+        }
+        return result;
+    }
+}
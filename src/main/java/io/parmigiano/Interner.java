@@ -0,0 +1,78 @@
+package io.parmigiano;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A weak, concurrent table of canonical permutation instances.
+ * Entries are keyed by the fingerprint {@link Permutation#hashCode()} and
+ * disappear when the canonical instance is no longer strongly reachable.
+ */
+final class Interner {
+
+    private static final ConcurrentHashMap<Key, Key> TABLE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Permutation> QUEUE = new ReferenceQueue<>();
+
+    private Interner() {
+    }
+
+    /**
+     * Find the canonical instance that is equal to the input.
+     * If there is none yet, the input becomes the canonical instance.
+     *
+     * @param p a permutation
+     * @return the canonical permutation that is equal to {@code p}
+     */
+    static Permutation intern(Permutation p) {
+        expunge();
+        Key key = new Key(p, QUEUE);
+        while (true) {
+            Key existing = TABLE.putIfAbsent(key, key);
+            if (existing == null) {
+                return p;
+            }
+            Permutation canonical = existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            TABLE.remove(existing, existing); // cleared in the meantime
+        }
+    }
+
+    private static void expunge() {
+        Object ref;
+        while ((ref = QUEUE.poll()) != null) {
+            Key key = (Key) ref;
+            TABLE.remove(key, key);
+        }
+    }
+
+    /**
+     * A cleared key is only equal to itself.
+     */
+    private static final class Key extends WeakReference<Permutation> {
+
+        private final int hash;
+
+        Key(Permutation p, ReferenceQueue<Permutation> queue) {
+            super(p, queue);
+            this.hash = p.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other) || other.hash != hash) {
+                return false;
+            }
+            Permutation p = get();
+            return p != null && p.equals(other.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
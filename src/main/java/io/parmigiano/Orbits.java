@@ -0,0 +1,136 @@
+package io.parmigiano;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Orbits of the group generated by some permutations, computed with a union-find pass
+ * over the generators, without enumerating the group.
+ */
+final class Orbits {
+
+    private Orbits() {
+    }
+
+    /**
+     * Find the nontrivial orbits on points.
+     *
+     * @param generators some permutations
+     * @return the orbits that have at least two points, ordered by their least point
+     */
+    static int[][] onPoints(Permutation... generators) {
+        int n = domainSize(generators);
+        UnionFind sets = new UnionFind(n);
+        for (Permutation g : generators) {
+            int[] image = g.image(n);
+            for (int i = 0; i < n; i++) {
+                sets.union(i, image[i]);
+            }
+        }
+        return sets.sets(2);
+    }
+
+    /**
+     * Find the orbits of the induced action on the {@code k}-subsets of {@code 0, ..., n - 1}.
+     * The subsets are numbered by their rank in lexicographic order.
+     *
+     * @param n the number of points
+     * @param k the size of subsets
+     * @param generators some permutations of {@code 0, ..., n - 1}
+     * @return all orbits, each as an array of sorted subsets, ordered by their first subset
+     */
+    static int[][][] onSubsets(int n, int k, Permutation... generators) {
+        checkState(n >= 0, "negative n: %d", n);
+        checkState(k >= 0 && k <= n, "k out of range: %d", k);
+        checkState(domainSize(generators) <= n, "a generator moves a point outside of 0, ..., %d", n - 1);
+        long[][] binomial = pascal(n, k);
+        long count = binomial[n][k];
+        checkState(count <= Integer.MAX_VALUE, "too many subsets: %s", count);
+        int[][] images = new int[generators.length][];
+        for (int g = 0; g < generators.length; g++) {
+            images[g] = generators[g].image(n);
+        }
+        UnionFind sets = new UnionFind((int) count);
+        int[] subset = ArrayUtil.range(k);
+        int[] image = new int[k];
+        for (int r = 0; r < count; r++) {
+            for (int[] g : images) {
+                for (int i = 0; i < k; i++) {
+                    int v = g[subset[i]];
+                    int j = i;
+                    while (j > 0 && image[j - 1] > v) {
+                        image[j] = image[j - 1];
+                        j--;
+                    }
+                    image[j] = v;
+                }
+                sets.union(r, rank(image, n, count, binomial));
+            }
+            nextSubset(subset, n);
+        }
+        int[][] orbits = sets.sets(1);
+        int[] orbitOf = new int[(int) count];
+        int[][][] result = new int[orbits.length][][];
+        for (int o = 0; o < orbits.length; o++) {
+            result[o] = new int[orbits[o].length][];
+            for (int r : orbits[o]) {
+                orbitOf[r] = o;
+            }
+        }
+        int[] fill = new int[orbits.length];
+        subset = ArrayUtil.range(k);
+        for (int r = 0; r < count; r++) {
+            int o = orbitOf[r];
+            result[o][fill[o]++] = subset.clone();
+            nextSubset(subset, n);
+        }
+        return result;
+    }
+
+    private static int domainSize(Permutation... generators) {
+        int n = 0;
+        for (Permutation g : generators) {
+            if (!g.isIdentity()) {
+                n = Math.max(n, g.maxMovedIndex() + 1);
+            }
+        }
+        return n;
+    }
+
+    /* lexicographic rank of a sorted subset */
+    private static int rank(int[] subset, int n, long count, long[][] binomial) {
+        int k = subset.length;
+        long rank = count - 1;
+        for (int i = 0; i < k; i++) {
+            int m = n - 1 - subset[i];
+            if (k - i <= m) {
+                rank -= binomial[m][k - i];
+            }
+        }
+        return (int) rank;
+    }
+
+    private static void nextSubset(int[] c, int n) {
+        int k = c.length;
+        int i = k - 1;
+        while (i >= 0 && c[i] == n - k + i)
+            i--;
+        if (i < 0)
+            return;
+        c[i]++;
+        for (int j = i + 1; j < k; j++)
+            c[j] = c[j - 1] + 1;
+    }
+
+    /* binomial[m][j] for m <= n and j <= k, saturating at Long.MAX_VALUE */
+    private static long[][] pascal(int n, int k) {
+        long[][] binomial = new long[n + 1][k + 1];
+        for (int m = 0; m <= n; m++) {
+            binomial[m][0] = 1;
+            for (int j = 1; j <= Math.min(m, k); j++) {
+                long sum = binomial[m - 1][j - 1] + binomial[m - 1][j];
+                binomial[m][j] = sum < 0 ? Long.MAX_VALUE : sum;
+            }
+        }
+        return binomial;
+    }
+}
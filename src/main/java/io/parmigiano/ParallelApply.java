@@ -0,0 +1,141 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * In-place application of disjoint cycles on a {@link ForkJoinPool}.
+ * The cycles are cut into chunks of roughly equal work: a chunk is either a run of
+ * short cycles, or a segment of a long cycle. A segment needs the value that precedes it
+ * in its cycle, so these values are read before any chunk is written.
+ */
+final class ParallelApply {
+
+    static final int THRESHOLD = 1 << 16; // moved points; below this, apply sequentially
+    private static final int CHUNK = 1 << 13; // moved points per chunk
+
+    private final int[][] cycles;
+    private final int[] a;
+
+    // chunk c is either the whole cycles cycleFrom[c], ..., cycleTo[c] - 1 if segFrom[c] < 0,
+    // or the positions segFrom[c], ..., segTo[c] - 1 of cycle cycleFrom[c], preceded by the value prev[c]
+    private int[] cycleFrom = new int[16];
+    private int[] cycleTo = new int[16];
+    private int[] segFrom = new int[16];
+    private int[] segTo = new int[16];
+    private int[] prev = new int[16];
+    private int chunks;
+
+    private ParallelApply(int[][] cycles, int[] a) {
+        this.cycles = cycles;
+        this.a = a;
+    }
+
+    /**
+     * Apply the cycles to {@code a} in place, so that {@code a[c[j + 1]]} becomes the old {@code a[c[j]]}
+     * for each cycle {@code c}.
+     *
+     * @param cycles disjoint cycles, all indexes less than {@code a.length}
+     * @param a an array
+     */
+    static void apply(int[][] cycles, int[] a) {
+        new ParallelApply(cycles, a).run();
+    }
+
+    private void run() {
+        int start = 0;
+        int weight = 0;
+        for (int c = 0; c < cycles.length; c++) {
+            int length = cycles[c].length;
+            if (length <= CHUNK) {
+                weight += length;
+                if (weight >= CHUNK) {
+                    addChunk(start, c + 1, -1, 0);
+                    start = c + 1;
+                    weight = 0;
+                }
+                continue;
+            }
+            if (start < c) {
+                addChunk(start, c, -1, 0);
+            }
+            for (int from = 0; from < length; from += CHUNK) {
+                addChunk(c, c + 1, from, Math.min(length, from + CHUNK));
+            }
+            start = c + 1;
+            weight = 0;
+        }
+        if (start < cycles.length) {
+            addChunk(start, cycles.length, -1, 0);
+        }
+        for (int k = 0; k < chunks; k++) {
+            if (segFrom[k] >= 0) {
+                int[] cycle = cycles[cycleFrom[k]];
+                prev[k] = a[cycle[segFrom[k] == 0 ? cycle.length - 1 : segFrom[k] - 1]];
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new Task(0, chunks));
+    }
+
+    private void addChunk(int cFrom, int cTo, int sFrom, int sTo) {
+        if (chunks == cycleFrom.length) {
+            int capacity = 2 * chunks;
+            cycleFrom = Arrays.copyOf(cycleFrom, capacity);
+            cycleTo = Arrays.copyOf(cycleTo, capacity);
+            segFrom = Arrays.copyOf(segFrom, capacity);
+            segTo = Arrays.copyOf(segTo, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        cycleFrom[chunks] = cFrom;
+        cycleTo[chunks] = cTo;
+        segFrom[chunks] = sFrom;
+        segTo[chunks] = sTo;
+        chunks++;
+    }
+
+    private void applyChunk(int k) {
+        if (segFrom[k] >= 0) {
+            shift(cycles[cycleFrom[k]], segFrom[k], segTo[k], prev[k]);
+            return;
+        }
+        for (int c = cycleFrom[k]; c < cycleTo[k]; c++) {
+            int[] cycle = cycles[c];
+            shift(cycle, 0, cycle.length, a[cycle[cycle.length - 1]]);
+        }
+    }
+
+    /* moves each value in positions from, ..., to - 2 one position forward, and puts first at from */
+    private void shift(int[] cycle, int from, int to, int first) {
+        for (int j = to - 1; j > from; j--) {
+            a[cycle[j]] = a[cycle[j - 1]];
+        }
+        a[cycle[from]] = first;
+    }
+
+    /* applies the chunks from, ..., to - 1 */
+    private final class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Task(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Task(from, mid), new Task(mid, to));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                applyChunk(k);
+            }
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package io.parmigiano;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 import static io.parmigiano.CycleUtil.chaseCycle;
 import static io.parmigiano.Preconditions.checkState;
-import static java.util.stream.Collectors.joining;
 
 /**
  * <p>An operation that shuffles a list.
@@ -21,17 +30,41 @@ public final class Permutation {
     private final int maxMovedIndex;
     private final int[][] cycles;
 
+    // cached fingerprint, computed lazily; 0 means not yet computed
+    private int hash;
+
+    // point-to-cycle index, built lazily; safely published through its final fields
+    private CycleIndex cycleIndex;
+
+    // the inverse, computed lazily; its inverse is this.
+    // volatile, so that the back link is visible to any thread that sees the inverse
+    private volatile Permutation inverse;
+
     private Permutation(int[][] cycles) {
         this(cycles, maxIndex(cycles));
     }
 
-    private Permutation fromCycles(int[][] cycles) {
+    private static Permutation fromCycles(int[][] cycles) {
         if (cycles.length == 0) {
             return IDENTITY;
         }
         return new Permutation(cycles);
     }
 
+    /* cycles that are known to be valid, such as the output of a sampler or the parser; not checked for duplicates */
+    private static Permutation fromValidCycles(int[][] cycles) {
+        if (cycles.length == 0) {
+            return IDENTITY;
+        }
+        int max = 0;
+        for (int[] cycle : cycles) {
+            for (int i : cycle) {
+                max = Math.max(max, i);
+            }
+        }
+        return new Permutation(cycles, max);
+    }
+
     private Permutation(int[][] cycles, int maxMovedIndex) {
         this.maxMovedIndex = maxMovedIndex;
         this.cycles = cycles;
@@ -62,19 +95,69 @@ public final class Permutation {
         return IDENTITY;
     }
 
-    private static Permutation fromRanking(int... ranking) {
-        if (ranking.length == 0) {
+    static Permutation fromRanking(int... ranking) {
+        Rankings.checkRanking(ranking);
+        return fromImageUnchecked(ranking);
+    }
+
+    /**
+     * Create a permutation from its image table, so that {@code apply(i) == image[i]}.
+     * This is the inverse of {@link #toImage(int[])}.
+     * The input is validated in linear time.
+     * The input array is not modified, and it is not retained.
+     *
+     * @param image an array that contains each of the numbers {@code 0, ..., image.length - 1} exactly once
+     * @return a permutation
+     * @throws java.lang.IllegalArgumentException if {@code image} is not a valid image table
+     */
+    public static Permutation fromImage(int[] image) {
+        return fromRanking(image);
+    }
+
+    /**
+     * Create a permutation from its image table, without validation.
+     * Use this only if the input is known to be valid, for example because
+     * it was written by {@link #toImage(int[])}.
+     * If the input is not valid, the result is unspecified.
+     * The input array is not modified, and it is not retained.
+     *
+     * @param image an array that contains each of the numbers {@code 0, ..., image.length - 1} exactly once
+     * @return a permutation
+     */
+    public static Permutation fromImageUnchecked(int[] image) {
+        int[][] cycles = CycleUtil.cycles(image);
+        if (cycles.length == 0) {
             return IDENTITY;
         }
-        return new Permutation(CycleUtil.toOrbits(ranking));
+        int max = image.length - 1;
+        while (image[max] == max) {
+            max--;
+        }
+        return new Permutation(cycles, max);
     }
 
+    /**
+     * Get the inverse of this permutation.
+     * The inverse is computed once, and linked back to this, so that
+     * {@code p.invert().invert() == p}, also if the permutation is shared between threads.
+     *
+     * @return the inverse permutation
+     */
     public Permutation invert() {
-        int[][] newCycles = new int[cycles.length][];
-        for (int i = 0; i < cycles.length; i++) {
-            newCycles[i] = reverse(cycles[i]);
+        Permutation result = inverse;
+        if (result == null) {
+            if (isIdentity()) {
+                return this;
+            }
+            int[][] newCycles = new int[cycles.length][];
+            for (int i = 0; i < cycles.length; i++) {
+                newCycles[i] = reverse(cycles[i]);
+            }
+            result = new Permutation(newCycles, maxMovedIndex);
+            result.inverse = this;
+            inverse = result;
         }
-        return new Permutation(newCycles, maxMovedIndex);
+        return result;
     }
 
     private static int[] reverse(int[] cycle) {
@@ -86,7 +169,58 @@ public final class Permutation {
     }
 
     public static Permutation random(int length) {
-        return fromRanking(Rankings.random(length));
+        return fromImageUnchecked(Rankings.random(length));
+    }
+
+    /**
+     * Choose a uniformly random permutation of {@code 0, ..., n - 1} that consists of a single cycle.
+     * This runs in linear time.
+     *
+     * @param n a non-negative number
+     * @param random a source of randomness
+     * @return a random {@code n}-cycle, or the identity if {@code n < 2}
+     */
+    public static Permutation randomCycle(int n, RandomGenerator random) {
+        return fromValidCycles(Sampling.cycle(n, random));
+    }
+
+    /**
+     * Choose a uniformly random permutation of {@code 0, ..., n - 1} that has no fixed points.
+     * This runs in expected linear time.
+     *
+     * @param n a non-negative number other than {@code 1}
+     * @param random a source of randomness
+     * @return a random derangement
+     * @throws java.lang.IllegalArgumentException if {@code n} is negative or {@code 1}
+     */
+    public static Permutation randomDerangement(int n, RandomGenerator random) {
+        return fromValidCycles(Sampling.derangement(n, random));
+    }
+
+    /**
+     * Choose a uniformly random permutation of {@code 0, ..., n - 1} that is its own inverse.
+     * This runs in linear time.
+     *
+     * @param n a non-negative number
+     * @param random a source of randomness
+     * @return a random involution
+     */
+    public static Permutation randomInvolution(int n, RandomGenerator random) {
+        return fromValidCycles(Sampling.involution(n, random));
+    }
+
+    /**
+     * Choose a uniformly random permutation with the given cycle lengths.
+     * If the cycle lengths add up to {@code n}, the result is a permutation of {@code 0, ..., n - 1}.
+     * This runs in linear time.
+     *
+     * @param cycleType positive cycle lengths, including fixed points as cycles of length {@code 1}
+     * @param random a source of randomness
+     * @return a random permutation with the given cycle type
+     * @throws java.lang.IllegalArgumentException if a cycle length is not positive
+     */
+    public static Permutation randomOfCycleType(int[] cycleType, RandomGenerator random) {
+        return fromValidCycles(Sampling.cycleType(cycleType, random));
     }
 
     /**
@@ -109,6 +243,130 @@ public final class Permutation {
         return copy;
     }
 
+    /**
+     * Apply this operation to an array, in place.
+     *
+     * @param a an array of length greater than {@code maxMovedIndex()}
+     * @return {@code a}, which now contains the result of {@link #apply(int[])}
+     * @throws java.lang.IllegalArgumentException if {@code a} is too short
+     */
+    public int[] applyInPlace(int[] a) {
+        if (isIdentity()) {
+            return a;
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.length);
+        for (int[] cycle : cycles) {
+            int last = a[cycle[cycle.length - 1]];
+            for (int j = cycle.length - 1; j > 0; j--) {
+                a[cycle[j]] = a[cycle[j - 1]];
+            }
+            a[cycle[0]] = last;
+        }
+        return a;
+    }
+
+    /**
+     * Apply this operation to an array, in place, using the common {@link java.util.concurrent.ForkJoinPool}.
+     * Since cycles are disjoint, they are applied concurrently; long cycles are split into segments.
+     * If few points are moved, this is the same as {@link #applyInPlace(int[])}.
+     *
+     * @param a an array of length greater than {@code maxMovedIndex()}
+     * @return {@code a}, which now contains the result of {@link #apply(int[])}
+     * @throws java.lang.IllegalArgumentException if {@code a} is too short
+     */
+    public int[] parallelApplyInPlace(int[] a) {
+        if (isIdentity()) {
+            return a;
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.length);
+        if (maxMovedIndex < ParallelApply.THRESHOLD) {
+            return applyInPlace(a);
+        }
+        ParallelApply.apply(cycles, a);
+        return a;
+    }
+
+    /**
+     * Undo {@link #apply(int[])}, without computing the inverse permutation.
+     * This method does not modify the input.
+     *
+     * @param a an array of length not less than {@code this.length()}
+     * @return the result of applying the inverse of this permutation to {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a.length < this.length()}
+     */
+    public int[] applyInverse(int[] a) {
+        int[] copy = Arrays.copyOf(a, a.length);
+        ArrayUtil.checkLength(maxMovedIndex, copy.length);
+        for (int[] cycle : cycles) {
+            for (int j = 0; j < cycle.length - 1; j++) {
+                int temp = copy[cycle[j + 1]];
+                copy[cycle[j + 1]] = copy[cycle[j]];
+                copy[cycle[j]] = temp;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Apply this operation to produce a new array. This method does not modify the input.
+     *
+     * @param a an array of length not less than {@code this.length()}
+     * @return the result of applying this permutation to {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a.length < this.length()}
+     */
+    public long[] apply(long[] a) {
+        long[] copy = Arrays.copyOf(a, a.length);
+        ArrayUtil.checkLength(maxMovedIndex, copy.length);
+        for (int[] cycle : cycles) {
+            for (int j = cycle.length - 2; j >= 0; j--) {
+                long temp = copy[cycle[j + 1]];
+                copy[cycle[j + 1]] = copy[cycle[j]];
+                copy[cycle[j]] = temp;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Apply this operation to produce a new array. This method does not modify the input.
+     *
+     * @param a an array of length not less than {@code this.length()}
+     * @return the result of applying this permutation to {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a.length < this.length()}
+     */
+    public double[] apply(double[] a) {
+        double[] copy = Arrays.copyOf(a, a.length);
+        ArrayUtil.checkLength(maxMovedIndex, copy.length);
+        for (int[] cycle : cycles) {
+            for (int j = cycle.length - 2; j >= 0; j--) {
+                double temp = copy[cycle[j + 1]];
+                copy[cycle[j + 1]] = copy[cycle[j]];
+                copy[cycle[j]] = temp;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Apply this operation to produce a new array. This method does not modify the input.
+     *
+     * @param a an array of length not less than {@code this.length()}
+     * @return the result of applying this permutation to {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a.length < this.length()}
+     */
+    public float[] apply(float[] a) {
+        float[] copy = Arrays.copyOf(a, a.length);
+        ArrayUtil.checkLength(maxMovedIndex, copy.length);
+        for (int[] cycle : cycles) {
+            for (int j = cycle.length - 2; j >= 0; j--) {
+                float temp = copy[cycle[j + 1]];
+                copy[cycle[j + 1]] = copy[cycle[j]];
+                copy[cycle[j]] = temp;
+            }
+        }
+        return copy;
+    }
+
     /**
      * Apply this operation to produce a new list. This method does not modify the input.
      *
@@ -129,6 +387,111 @@ public final class Permutation {
         return copy;
     }
 
+    /**
+     * Get a read-only view of the list that {@link #apply(List)} would produce.
+     * The view is backed by the input list and reflects changes in it;
+     * only the image table of the inverse is allocated.
+     * The view implements {@link java.util.RandomAccess} if the input does.
+     * A copy, for example {@code new ArrayList<>(view)}, is made in one gather pass via {@code toArray()}.
+     *
+     * @param a a list of size not less than {@code this.length()}
+     * @param <E> element type
+     * @return an unmodifiable view
+     * @throws java.lang.IllegalArgumentException if {@code a.size() < this.length()}
+     */
+    public <E> List<E> view(List<E> a) {
+        if (isIdentity()) {
+            return Collections.unmodifiableList(a);
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.size());
+        return PermutedList.of(a, invert().image(maxMovedIndex + 1));
+    }
+
+    /**
+     * Apply this operation to the remaining elements of an int buffer, in place.
+     * Element {@code i} is the element at {@code a.position() + i}.
+     * The position and limit of the buffer are not changed.
+     *
+     * @param a a buffer with more than {@code maxMovedIndex()} remaining elements
+     * @return {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a} has too few remaining elements
+     * @throws java.nio.ReadOnlyBufferException if {@code a} is read-only
+     */
+    public IntBuffer applyInPlace(IntBuffer a) {
+        if (isIdentity()) {
+            return a;
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.remaining());
+        int base = a.position();
+        for (int[] cycle : cycles) {
+            int last = a.get(base + cycle[cycle.length - 1]);
+            for (int j = cycle.length - 1; j > 0; j--) {
+                a.put(base + cycle[j], a.get(base + cycle[j - 1]));
+            }
+            a.put(base + cycle[0], last);
+        }
+        return a;
+    }
+
+    /**
+     * Apply this operation to the remaining elements of a long buffer, in place.
+     * Element {@code i} is the element at {@code a.position() + i}.
+     * The position and limit of the buffer are not changed.
+     *
+     * @param a a buffer with more than {@code maxMovedIndex()} remaining elements
+     * @return {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code a} has too few remaining elements
+     * @throws java.nio.ReadOnlyBufferException if {@code a} is read-only
+     */
+    public LongBuffer applyInPlace(LongBuffer a) {
+        if (isIdentity()) {
+            return a;
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.remaining());
+        int base = a.position();
+        for (int[] cycle : cycles) {
+            long last = a.get(base + cycle[cycle.length - 1]);
+            for (int j = cycle.length - 1; j > 0; j--) {
+                a.put(base + cycle[j], a.get(base + cycle[j - 1]));
+            }
+            a.put(base + cycle[0], last);
+        }
+        return a;
+    }
+
+    /**
+     * Apply this operation to the fixed-size records in a byte buffer, in place.
+     * Record {@code i} is the {@code recordSize} bytes starting at {@code a.position() + i * recordSize}.
+     * Records are moved with bulk copies, so this works on direct buffers without copying them to the heap.
+     * The position and limit of the buffer are not changed.
+     *
+     * @param a a buffer with more than {@code maxMovedIndex()} remaining records
+     * @param recordSize the number of bytes per record
+     * @return {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code recordSize} is not positive,
+     * or if {@code a} has too few remaining records
+     * @throws java.nio.ReadOnlyBufferException if {@code a} is read-only
+     */
+    public ByteBuffer applyInPlace(ByteBuffer a, int recordSize) {
+        checkState(recordSize > 0, "record size must be positive: %d", recordSize);
+        if (isIdentity()) {
+            return a;
+        }
+        ArrayUtil.checkLength(maxMovedIndex + 1, a.remaining() / recordSize);
+        int base = a.position();
+        byte[] last = new byte[recordSize];
+        byte[] record = new byte[recordSize];
+        for (int[] cycle : cycles) {
+            a.get(base + cycle[cycle.length - 1] * recordSize, last);
+            for (int j = cycle.length - 1; j > 0; j--) {
+                a.get(base + cycle[j - 1] * recordSize, record);
+                a.put(base + cycle[j] * recordSize, record);
+            }
+            a.put(base + cycle[0] * recordSize, last);
+        }
+        return a;
+    }
+
     public String apply(String s) {
         char[] dst = new char[s.length()];
         s.getChars(0, s.length(), dst, 0);
@@ -160,6 +523,130 @@ public final class Permutation {
         return n;
     }
 
+    /**
+     * Find the index that is moved to {@code n}, without computing the inverse permutation.
+     * After the first query, this runs in constant time.
+     *
+     * @param n a number
+     * @return the index {@code i} such that {@code apply(i) == n}
+     */
+    public int applyInverse(int n) {
+        checkState(n >= 0, "negative index: %d", n);
+        CycleIndex index = cycleIndex();
+        if (n >= index.cycle.length || index.cycle[n] < 0) {
+            return n;
+        }
+        int[] cycle = cycles[index.cycle[n]];
+        int pos = index.position[n];
+        return cycle[pos == 0 ? cycle.length - 1 : pos - 1];
+    }
+
+    /**
+     * Test if an index is not moved by this permutation.
+     * After the first query, this runs in constant time.
+     *
+     * @param i a non-negative number
+     * @return {@code true} if {@code apply(i) == i}
+     */
+    public boolean isFixed(int i) {
+        checkState(i >= 0, "negative index: %d", i);
+        return cycleLength(i) == 1;
+    }
+
+    /**
+     * Get the length of the cycle that contains an index.
+     * After the first query, this runs in constant time.
+     *
+     * @param i a non-negative number
+     * @return the length of the cycle of {@code i}, which is {@code 1} if {@code i} is a fixed point
+     */
+    public int cycleLength(int i) {
+        checkState(i >= 0, "negative index: %d", i);
+        CycleIndex index = cycleIndex();
+        if (i >= index.cycle.length) {
+            return 1;
+        }
+        int c = index.cycle[i];
+        return c < 0 ? 1 : cycles[c].length;
+    }
+
+    /**
+     * Get the cycle that contains an index.
+     * After the first query, the cycle is located in constant time, and then copied.
+     *
+     * @param i a non-negative number
+     * @return the cycle of {@code i}, starting with {@code i}, so that each entry is moved to the next,
+     * and the last entry is moved to {@code i}; a fixed point gives {@code {i}}
+     */
+    public int[] cycleOf(int i) {
+        checkState(i >= 0, "negative index: %d", i);
+        CycleIndex index = cycleIndex();
+        if (i >= index.cycle.length) {
+            return new int[]{i};
+        }
+        int c = index.cycle[i];
+        if (c < 0) {
+            return new int[]{i};
+        }
+        int[] cycle = cycles[c];
+        int pos = index.position[i];
+        int[] result = new int[cycle.length];
+        System.arraycopy(cycle, pos, result, 0, cycle.length - pos);
+        System.arraycopy(cycle, 0, result, cycle.length - pos, pos);
+        return result;
+    }
+
+    /**
+     * Get the indexes that are moved by this permutation.
+     * The result is computed once, and then copied.
+     *
+     * @return the moved indexes, in ascending order
+     */
+    public int[] support() {
+        return cycleIndex().support.clone();
+    }
+
+    private CycleIndex cycleIndex() {
+        CycleIndex result = cycleIndex;
+        if (result == null) {
+            result = new CycleIndex(cycles, maxMovedIndex);
+            cycleIndex = result;
+        }
+        return result;
+    }
+
+    private static final class CycleIndex {
+
+        final int[] cycle; // number of the cycle of each point, or -1 for a fixed point
+        final int[] position; // position of each point in its cycle
+        final int[] support;
+
+        CycleIndex(int[][] cycles, int maxMovedIndex) {
+            int length = cycles.length == 0 ? 0 : maxMovedIndex + 1;
+            this.cycle = new int[length];
+            this.position = new int[length];
+            Arrays.fill(cycle, -1);
+            int count = 0;
+            for (int c = 0; c < cycles.length; c++) {
+                if (cycles[c].length < 2) {
+                    continue;
+                }
+                for (int j = 0; j < cycles[c].length; j++) {
+                    cycle[cycles[c][j]] = c;
+                    position[cycles[c][j]] = j;
+                }
+                count += cycles[c].length;
+            }
+            this.support = new int[count];
+            int k = 0;
+            for (int i = 0; i < length; i++) {
+                if (cycle[i] >= 0) {
+                    support[k++] = i;
+                }
+            }
+        }
+    }
+
     /**
      * Composing with another permutation creates a new operation.
      *
@@ -231,6 +718,219 @@ public final class Permutation {
         return result;
     }
 
+    /**
+     * Record a product of the input operations, in order, without evaluating it.
+     * This is useful when the product is applied only once or a few times,
+     * because no intermediate permutations are created.
+     *
+     * @param permutations an array of permutations
+     * @return a lazy product, equivalent to {@code product(permutations)}
+     */
+    public static Chain chain(Permutation... permutations) {
+        return new Chain(permutations.clone());
+    }
+
+    /**
+     * Returns a {@code Collector} that takes the product of the input operations, in encounter order.
+     * The result is the same as {@code reduce(identity(), Permutation::compose)},
+     * but the factors are accumulated into a mutable image table, so no intermediate
+     * permutations are created. Partial products are combined associatively,
+     * so parallel streams are supported.
+     *
+     * @return a collector which computes the composition or product
+     */
+    public static Collector<Permutation, ?, Permutation> toProduct() {
+        return Collector.of(
+                ProductAccumulator::new,
+                ProductAccumulator::accept,
+                ProductAccumulator::combine,
+                ProductAccumulator::finish);
+    }
+
+    /**
+     * Mutable partial product. The image table {@code image} holds the ranking of
+     * the product of all accepted factors; indexes beyond its length are fixed.
+     */
+    private static final class ProductAccumulator {
+
+        private int[] image = new int[0];
+
+        void accept(Permutation p) {
+            if (p.isIdentity()) {
+                return;
+            }
+            ensureLength(p.maxMovedIndex + 1);
+            for (int[] cycle : p.cycles) {
+                int temp = image[cycle[0]];
+                for (int j = 0; j < cycle.length - 1; j++) {
+                    image[cycle[j]] = image[cycle[j + 1]];
+                }
+                image[cycle[cycle.length - 1]] = temp;
+            }
+        }
+
+        ProductAccumulator combine(ProductAccumulator other) {
+            int[] rhs = other.image;
+            if (rhs.length == 0) {
+                return this;
+            }
+            int[] lhs = image;
+            int[] result = new int[Math.max(lhs.length, rhs.length)];
+            for (int i = 0; i < result.length; i++) {
+                int n = i < rhs.length ? rhs[i] : i;
+                result[i] = n < lhs.length ? lhs[n] : n;
+            }
+            image = result;
+            return this;
+        }
+
+        Permutation finish() {
+            return fromRanking(image);
+        }
+
+        private void ensureLength(int length) {
+            if (image.length >= length) {
+                return;
+            }
+            int oldLength = image.length;
+            image = Arrays.copyOf(image, Math.max(length, 2 * oldLength));
+            for (int i = oldLength; i < image.length; i++) {
+                image[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Find the orbits of the group that is generated by the input permutations.
+     * Two points are in the same orbit if some product of the generators moves one to the other.
+     * This uses a union-find pass over the generators, and does not enumerate the group.
+     *
+     * @param generators some permutations
+     * @return the orbits that contain at least two points, each sorted,
+     * and ordered by their least point
+     */
+    public static int[][] orbits(Permutation... generators) {
+        return Orbits.onPoints(generators);
+    }
+
+    /**
+     * Find the orbits of the group that is generated by the input permutations,
+     * acting on the {@code k}-element subsets of {@code 0, ..., n - 1}.
+     * For {@code k = 2}, these are the orbits on unordered pairs.
+     * This uses a union-find pass over the generators and subsets, and does not enumerate the group.
+     *
+     * @param n the number of points
+     * @param k the size of subsets
+     * @param generators some permutations that do not move points outside of {@code 0, ..., n - 1}
+     * @return all orbits, including fixed subsets; each orbit is an array of ascending subsets
+     * in lexicographic order, and the orbits are ordered by their first subset
+     * @throws java.lang.IllegalArgumentException if {@code k} is out of range, if a generator moves a point
+     * outside of {@code 0, ..., n - 1}, or if there are more than {@code Integer.MAX_VALUE} subsets
+     */
+    public static int[][][] orbitsOnSubsets(int n, int k, Permutation... generators) {
+        return Orbits.onSubsets(n, k, generators);
+    }
+
+    /**
+     * Enumerate the group that is generated by the input permutations.
+     * The elements are found by a breadth-first search that is expanded in parallel,
+     * and stored in packed form; the returned list decodes them on demand.
+     *
+     * @param generators some permutations
+     * @return all elements of the generated group, without duplicates, starting with the identity
+     * @throws java.lang.IllegalArgumentException if the group is too large to be stored in an array
+     */
+    public static List<Permutation> closure(Permutation... generators) {
+        return Closure.closure(generators);
+    }
+
+    /**
+     * Find generators of the centralizer of {@code p} in the symmetric group on {@code 0, ..., n - 1},
+     * that is, of the group of all permutations that commute with {@code p}.
+     * The generators are constructed directly from the cycle structure of {@code p};
+     * the group has order {@code k^m * m!}, multiplied over the cycle lengths {@code k} that occur {@code m} times,
+     * where fixed points count as cycles of length {@code 1}.
+     *
+     * @param p a permutation
+     * @param n the number of points
+     * @return some generators of the centralizer, or an empty list if the centralizer is trivial
+     * @throws java.lang.IllegalArgumentException if {@code p} moves a point outside of {@code 0, ..., n - 1}
+     */
+    public static List<Permutation> centralizer(Permutation p, int n) {
+        return Centralizer.inSymmetricGroup(p, n);
+    }
+
+    /**
+     * Find the centralizer of {@code p} in the group that is generated by the input permutations.
+     * The group is enumerated once, and each element is compared with {@code p} only.
+     *
+     * @param p a permutation
+     * @param generators some permutations
+     * @return all elements of the generated group that commute with {@code p}, starting with the identity
+     * @throws java.lang.IllegalArgumentException if the group is too large to be stored in an array
+     */
+    public static List<Permutation> centralizer(Permutation p, Permutation... generators) {
+        return Centralizer.commuting(new Permutation[]{p}, generators);
+    }
+
+    /**
+     * Find the center of the group that is generated by the input permutations.
+     * An element is central if it commutes with each generator, so the group is enumerated once,
+     * and each element is compared with the generators only.
+     *
+     * @param generators some permutations
+     * @return all central elements of the generated group, starting with the identity
+     * @throws java.lang.IllegalArgumentException if the group is too large to be stored in an array
+     */
+    public static List<Permutation> center(Permutation... generators) {
+        return Centralizer.commuting(generators, generators);
+    }
+
+    /**
+     * Order the vertices of a graph by ascending degree, keeping the order of vertices of equal degree.
+     * The graph is given in compressed sparse row form, and diagonal entries are ignored.
+     * This runs in time {@code O(n + nnz)}.
+     *
+     * @param rowPtr row offsets, of length {@code n + 1}
+     * @param colIdx column indexes
+     * @return a permutation that moves each vertex to its position in the ordering
+     * @throws java.lang.IllegalArgumentException if the input is not a valid square matrix in compressed sparse row form
+     */
+    public static Permutation degreeOrdering(int[] rowPtr, int[] colIdx) {
+        return Reordering.byDegree(rowPtr, colIdx);
+    }
+
+    /**
+     * Find the reverse Cuthill-McKee ordering of a graph, which tends to reduce the bandwidth of its adjacency matrix.
+     * The graph is given in compressed sparse row form, and should be symmetric;
+     * for a matrix {@code A} that is not structurally symmetric, pass the pattern of {@code A + A^T}.
+     * Diagonal entries are ignored.
+     *
+     * @param rowPtr row offsets, of length {@code n + 1}
+     * @param colIdx column indexes
+     * @return a permutation that moves each vertex to its position in the ordering
+     * @throws java.lang.IllegalArgumentException if the input is not a valid square matrix in compressed sparse row form
+     */
+    public static Permutation reverseCuthillMcKee(int[] rowPtr, int[] colIdx) {
+        return Reordering.reverseCuthillMcKee(rowPtr, colIdx);
+    }
+
+    /**
+     * Reorder the rows and columns of a square sparse matrix, computing {@code P A P^T},
+     * so that the entry in row {@code i} and column {@code j} moves to row {@code apply(i)} and column {@code apply(j)}.
+     * This runs in time {@code O(n + nnz)}, and the column indexes in each row of the result are ascending.
+     *
+     * @param rowPtr row offsets, of length {@code n + 1}
+     * @param colIdx column indexes
+     * @param values entry values, or {@code null} to permute only the sparsity pattern
+     * @return the reordered matrix
+     * @throws java.lang.IllegalArgumentException if the input is not a valid square matrix in compressed sparse row form,
+     * or if this permutation moves a point outside of {@code 0, ..., n - 1}
+     */
+    public CsrMatrix applySymmetric(int[] rowPtr, int[] colIdx, double[] values) {
+        return Reordering.applySymmetric(this, rowPtr, colIdx, values);
+    }
+
     public boolean isIdentity() {
         return cycles.length == 0;
     }
@@ -247,6 +947,41 @@ public final class Permutation {
         return result;
     }
 
+    /**
+     * Write the image table of this permutation into an existing array,
+     * so that {@code dest[i] == apply(i)} for each index of {@code dest}.
+     * This is the inverse of {@link #fromImage(int[])}.
+     *
+     * @param dest an array of length greater than {@code maxMovedIndex()}, or any array for the identity
+     * @return {@code dest}
+     * @throws java.lang.IllegalArgumentException if {@code dest} is too short
+     */
+    public int[] toImage(int[] dest) {
+        if (!isIdentity()) {
+            ArrayUtil.checkLength(maxMovedIndex + 1, dest.length);
+        }
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = i;
+        }
+        for (int[] cycle : cycles) {
+            for (int j = 0; j < cycle.length - 1; j++) {
+                dest[cycle[j]] = cycle[j + 1];
+            }
+            dest[cycle[cycle.length - 1]] = cycle[0];
+        }
+        return dest;
+    }
+
+    /**
+     * Write the image table of this permutation, so that {@code result[i] == apply(i)}.
+     *
+     * @param length a number greater than {@code maxMovedIndex()}, or {@code 0} for the identity
+     * @return an array of the given length
+     */
+    int[] image(int length) {
+        return toImage(new int[length]);
+    }
+
     /**
      * Max moved index.
      *
@@ -290,6 +1025,100 @@ public final class Permutation {
         return fromRanking(Rankings.sorting(input, comparator));
     }
 
+    /**
+     * Create a permutation that sorts the input. Equal elements keep their relative order.
+     *
+     * @param input an array
+     * @return a permutation that sorts {@code input}
+     */
+    public static Permutation sorting(long[] input) {
+        return fromRanking(Rankings.sorting(input));
+    }
+
+    /**
+     * Create a permutation that sorts the input. Equal elements keep their relative order.
+     * The order is the same as in {@link Arrays#sort(double[])}:
+     * {@code -0.0} comes before {@code 0.0}, and {@code NaN} comes last.
+     *
+     * @param input an array
+     * @return a permutation that sorts {@code input}
+     */
+    public static Permutation sorting(double[] input) {
+        return fromRanking(Rankings.sorting(input));
+    }
+
+    /**
+     * Create a permutation that sorts the input. Equal elements keep their relative order.
+     * The order is the same as in {@link Arrays#sort(float[])}:
+     * {@code -0.0f} comes before {@code 0.0f}, and {@code NaN} comes last.
+     *
+     * @param input an array
+     * @return a permutation that sorts {@code input}
+     */
+    public static Permutation sorting(float[] input) {
+        return fromRanking(Rankings.sorting(input));
+    }
+
+    /**
+     * Create a permutation that sorts the rows of a table lexicographically,
+     * first by the first column, then by the second column, and so on.
+     * Rows that tie in all columns keep their relative order.
+     * The resulting permutation can be applied to each column of the table.
+     *
+     * @param columns one or more columns of equal length
+     * @return a permutation that sorts the rows
+     * @throws java.lang.IllegalArgumentException if there are no columns, or if the columns differ in length
+     */
+    public static Permutation sorting(Column... columns) {
+        return fromRanking(Rankings.sorting(columns));
+    }
+
+    /**
+     * Create a permutation that moves the {@code k} smallest elements of the input to the front, in sorted order.
+     * Equal elements keep their relative order. The order of the remaining elements is unspecified.
+     * This runs in expected time {@code O(n + k log k)}, which is faster than {@link #sorting(int[])}
+     * if {@code k} is small.
+     *
+     * @param a an array
+     * @param k the number of smallest elements to sort
+     * @return a permutation that partially sorts {@code a}
+     * @throws java.lang.IllegalArgumentException if {@code k} is negative or greater than {@code a.length}
+     */
+    public static Permutation sortingTopK(int[] a, int k) {
+        return fromRanking(Rankings.sortingTopK(a, k));
+    }
+
+    public static <E extends Comparable<E>> Permutation sortingTopK(List<E> input, int k) {
+        return fromRanking(Rankings.sortingTopK(input, k, Comparator.naturalOrder()));
+    }
+
+    public static <E> Permutation sortingTopK(List<E> input, int k, Comparator<E> comparator) {
+        return fromRanking(Rankings.sortingTopK(input, k, comparator));
+    }
+
+    /**
+     * Create a permutation that merges presorted runs of the input, without sorting it again.
+     * Run {@code r} consists of the elements from {@code runBoundaries[r]} (inclusive)
+     * to {@code runBoundaries[r + 1]} (exclusive). Equal elements are taken from the earlier run first,
+     * so the merge is stable. This runs in time {@code O(n log k)}, where {@code k} is the number of runs.
+     *
+     * @param data an array which is sorted within each run
+     * @param runBoundaries a non-decreasing array that starts with {@code 0} and ends with {@code data.length}
+     * @return a permutation that sorts {@code data}
+     * @throws java.lang.IllegalArgumentException if the run boundaries are invalid, or if a run is not sorted
+     */
+    public static Permutation merging(int[] data, int[] runBoundaries) {
+        return fromRanking(Rankings.merging(data, runBoundaries));
+    }
+
+    public static <E extends Comparable<E>> Permutation merging(List<E> data, int[] runBoundaries) {
+        return fromRanking(Rankings.merging(data, runBoundaries, Comparator.naturalOrder()));
+    }
+
+    public static <E> Permutation merging(List<E> data, int[] runBoundaries, Comparator<E> comparator) {
+        return fromRanking(Rankings.merging(data, runBoundaries, comparator));
+    }
+
     public static List<Permutation> symmetricGroup(int n) {
         List<int[]> rankings = Rankings.symmetricGroup(n);
         List<Permutation> result = new ArrayList<>(rankings.size());
@@ -299,6 +1128,32 @@ public final class Permutation {
         return result;
     }
 
+    /**
+     * Enumerate all arrangements of {@code n} elements by successive swaps, using Heap's algorithm.
+     * Starting from any arrangement, applying each swap in turn visits every arrangement exactly once.
+     * The visitor receives {@code n! - 1} swaps. No memory is allocated per step,
+     * so the visitor can update its own state incrementally.
+     *
+     * @param n the number of elements
+     * @param visitor receives the swaps
+     */
+    public static void visitSwaps(int n, SwapVisitor visitor) {
+        Swaps.heap(n, visitor);
+    }
+
+    /**
+     * Enumerate all arrangements of {@code n} elements by successive swaps of adjacent positions,
+     * using the Steinhaus-Johnson-Trotter algorithm (plain changes).
+     * Starting from any arrangement, applying each swap in turn visits every arrangement exactly once.
+     * The visitor receives {@code n! - 1} swaps {@code (i, i + 1)}. No memory is allocated per step.
+     *
+     * @param n the number of elements
+     * @param visitor receives the swaps
+     */
+    public static void visitAdjacentSwaps(int n, SwapVisitor visitor) {
+        Swaps.plainChanges(n, visitor);
+    }
+
     public int order() {
         // LCM?
         int i = 1;
@@ -310,6 +1165,21 @@ public final class Permutation {
         return i;
     }
 
+    /**
+     * Returns a canonical instance that is equal to this permutation.
+     * For any two permutations {@code p} and {@code q}, {@code p.intern() == q.intern()}
+     * is true if and only if {@code p.equals(q)} is true.
+     * The canonical instances are held weakly, so interning does not prevent garbage collection.
+     *
+     * @return the canonical instance
+     */
+    public Permutation intern() {
+        if (isIdentity()) {
+            return IDENTITY;
+        }
+        return Interner.intern(this);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -320,6 +1190,9 @@ public final class Permutation {
         if (other.maxMovedIndex != maxMovedIndex) {
             return false;
         }
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
         for (int i = 0; i < maxMovedIndex; i++) {
             if (apply(i) != other.apply(i)) {
                 return false;
@@ -330,10 +1203,14 @@ public final class Permutation {
 
     @Override
     public int hashCode() {
-        int result = 1;
-        for (int i = 0; i <= maxMovedIndex; i++) {
-            int apply = apply(i);
-            result = 31 * result + apply;
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (int i = 0; i <= maxMovedIndex; i++) {
+                int apply = apply(i);
+                result = 31 * result + apply;
+            }
+            hash = result;
         }
         return result;
     }
@@ -341,34 +1218,94 @@ public final class Permutation {
 
     @Override
     public String toString() {
-        if (isIdentity()) {
-            return "id";
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write this permutation in cycle notation, as in {@code (0 1 2) (3 4)}.
+     * The identity is written as {@code id}.
+     * This is the same format as {@link #toString()}, and it can be read by {@link #parse(CharSequence)}.
+     *
+     * @param out the destination
+     * @return {@code out}
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        try {
+            CycleNotation.append(cycles, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // can't happen
         }
-        return Arrays.stream(cycles)
-                .map(Arrays::stream)
-                .map(s -> s.mapToObj(Integer::toString))
-                .map(s -> s.collect(joining(" ", "(", ")")))
-                .collect(joining(" "));
+        return out;
+    }
+
+    /**
+     * Write this permutation in cycle notation, as in {@code (0 1 2) (3 4)}.
+     * The identity is written as {@code id}.
+     * This is the same format as {@link #toString()}, and it can be read by {@link #parse(CharSequence)}.
+     *
+     * @param out the destination
+     * @param <A> the type of the destination
+     * @return {@code out}
+     * @throws IOException if {@code out} throws
+     */
+    public <A extends Appendable> A appendTo(A out) throws IOException {
+        CycleNotation.append(cycles, out);
+        return out;
+    }
+
+    /**
+     * Read a permutation in cycle notation, as in {@code (0 1 2) (3 4)}.
+     * The identity can be written as {@code id}.
+     * Cycles of length one are allowed.
+     *
+     * @param s a string in cycle notation
+     * @return the permutation
+     * @throws java.lang.IllegalArgumentException if {@code s} is not valid cycle notation,
+     * or if an index appears more than once
+     */
+    public static Permutation parse(CharSequence s) {
+        return fromValidCycles(CycleNotation.parse(s));
+    }
+
+    /**
+     * Read permutations in cycle notation, one per line. Blank lines are skipped.
+     * The stream is lazy, and reading errors are rethrown as {@link UncheckedIOException}.
+     *
+     * @param reader a reader
+     * @return a stream of the permutations in {@code reader}
+     * @see #parse(CharSequence)
+     */
+    public static Stream<Permutation> lines(BufferedReader reader) {
+        return reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(Permutation::parse);
     }
 
     public String print() {
         if (isIdentity()) {
             return "identity()";
         }
-        String receiver = printCycle(cycles[0]);
-        if (cycles.length == 1) {
-            return receiver;
+        StringBuilder sb = new StringBuilder();
+        printCycle(cycles[0], sb);
+        for (int i = 1; i < cycles.length; i++) {
+            sb.append(".compose(");
+            printCycle(cycles[i], sb);
+            sb.append(')');
         }
-        return receiver + Arrays.stream(cycles)
-                .skip(1)
-                .map(Permutation::printCycle)
-                .collect(joining(").compose(", ".compose(", ")"));
+        return sb.toString();
     }
 
-    private static String printCycle(int[] cycle) {
-        return Arrays.stream(cycle)
-                .mapToObj(Integer::toString)
-                .collect(joining(", ", "create(", ")"));
+    private static void printCycle(int[] cycle, StringBuilder sb) {
+        sb.append("create(");
+        for (int j = 0; j < cycle.length; j++) {
+            if (j > 0) {
+                sb.append(", ");
+            }
+            sb.append(cycle[j]);
+        }
+        sb.append(')');
     }
 
     public Permutation normalize() {
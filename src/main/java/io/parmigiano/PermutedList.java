@@ -0,0 +1,69 @@
+package io.parmigiano;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only view of a list, in the order that {@link Permutation#apply(List)} would produce.
+ * Element {@code k} of the view is element {@code source[k]} of the backing list,
+ * and indexes beyond the table are not moved.
+ *
+ * @param <E> element type
+ */
+class PermutedList<E> extends AbstractList<E> {
+
+    private final List<E> backing;
+    private final int[] source;
+
+    private PermutedList(List<E> backing, int[] source) {
+        this.backing = backing;
+        this.source = source;
+    }
+
+    /**
+     * Create a view. The view implements {@link RandomAccess} if the backing list does.
+     *
+     * @param backing a list
+     * @param source image table of the inverse permutation
+     * @param <E> element type
+     * @return a read-only view
+     */
+    static <E> List<E> of(List<E> backing, int[] source) {
+        if (backing instanceof RandomAccess) {
+            return new RandomAccessList<>(backing, source);
+        }
+        return new PermutedList<>(backing, source);
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < source.length) {
+            return backing.get(source[index]);
+        }
+        return backing.get(index);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    /* one pass over the backing list, and one gather */
+    @Override
+    public Object[] toArray() {
+        Object[] src = backing.toArray();
+        Object[] result = src.clone();
+        for (int k = 0; k < source.length && k < src.length; k++) {
+            result[k] = src[source[k]];
+        }
+        return result;
+    }
+
+    private static final class RandomAccessList<E> extends PermutedList<E> implements RandomAccess {
+
+        RandomAccessList(List<E> backing, int[] source) {
+            super(backing, source);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * An incremental version of {@link Permutation#sorting(int[])}.
+ * Keys are appended one at a time, and each key is identified by the index
+ * that was returned when it was appended. Keys can be changed or removed later.
+ * The keys are ordered by value, and equal keys by index.
+ *
+ * <p>All operations except {@link #keys()} and {@link #toPermutation()} run in expected time {@code O(log n)}.
+ * This class is backed by a treap whose nodes are the key indexes, stored in primitive arrays.
+ * It is not thread safe.
+ */
+public final class Ranker {
+
+    private static final int NIL = -1;
+
+    private long[] sortKey = new long[16]; // value in the upper half, index in the lower half
+    private int[] priority = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] size = new int[16]; // size of subtree, or 0 if removed
+
+    private int length; // number of appended keys, including removed keys
+    private int root = NIL;
+
+    // results of split
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * Create an empty ranker.
+     */
+    public Ranker() {
+    }
+
+    /**
+     * Append a key.
+     *
+     * @param key a key
+     * @return the index of the new key
+     */
+    public int append(int key) {
+        int i = length;
+        if (i == sortKey.length) {
+            grow();
+        }
+        length++;
+        insert(i, key);
+        return i;
+    }
+
+    /**
+     * Change the value of a key.
+     *
+     * @param i the index of a key that is present
+     * @param key the new value of the key
+     * @throws java.lang.IllegalArgumentException if there is no key at index {@code i}
+     */
+    public void set(int i, int key) {
+        remove(i);
+        insert(i, key);
+    }
+
+    /**
+     * Remove a key. The index of the removed key will not be reused.
+     *
+     * @param i the index of a key that is present
+     * @throws java.lang.IllegalArgumentException if there is no key at index {@code i}
+     */
+    public void remove(int i) {
+        checkPresent(i);
+        split(root, sortKey[i]);
+        int lower = splitLeft;
+        split(splitRight, sortKey[i] + 1);
+        root = merge(lower, splitRight);
+        size[i] = 0;
+    }
+
+    /**
+     * Check if there is a key at index {@code i}.
+     *
+     * @param i a number
+     * @return {@code true} if a key was appended at index {@code i} and not removed
+     */
+    public boolean contains(int i) {
+        return i >= 0 && i < length && size[i] != 0;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param i the index of a key that is present
+     * @return the value of the key
+     * @throws java.lang.IllegalArgumentException if there is no key at index {@code i}
+     */
+    public int key(int i) {
+        checkPresent(i);
+        return (int) (sortKey[i] >> 32);
+    }
+
+    /**
+     * Get the number of keys that are present.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return root == NIL ? 0 : size[root];
+    }
+
+    /**
+     * Get the position of a key in sorted order.
+     *
+     * @param i the index of a key that is present
+     * @return the number of keys that come before the key at index {@code i}
+     * @throws java.lang.IllegalArgumentException if there is no key at index {@code i}
+     */
+    public int rankOf(int i) {
+        checkPresent(i);
+        long k = sortKey[i];
+        int rank = 0;
+        int node = root;
+        while (node != i) {
+            if (k < sortKey[node]) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + sizeOf(left[i]);
+    }
+
+    /**
+     * Find the key at a position in sorted order.
+     *
+     * @param rank a number between {@code 0} (inclusive) and {@code size()} (exclusive)
+     * @return the index of the key that has the given rank
+     * @throws java.lang.IllegalArgumentException if {@code rank} is out of range
+     */
+    public int select(int rank) {
+        checkState(rank >= 0 && rank < size(), "rank out of range: %d", rank);
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(left[node]);
+            if (rank < leftSize) {
+                node = left[node];
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Get the values of all keys that are present, in index order.
+     *
+     * @return an array of length {@code size()}
+     */
+    public int[] keys() {
+        int[] result = new int[size()];
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            if (size[i] != 0) {
+                result[j++] = (int) (sortKey[i] >> 32);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the permutation that sorts the current {@link #keys()}.
+     * Equal keys keep their relative order.
+     * This runs in time {@code O(n)}.
+     *
+     * @return a permutation that sorts {@code keys()}
+     */
+    public Permutation toPermutation() {
+        int[] position = new int[length]; // index -> position in keys()
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            if (size[i] != 0) {
+                position[i] = j++;
+            }
+        }
+        int[] ranking = new int[j];
+        int[] stack = new int[64];
+        int top = 0;
+        int node = root;
+        int rank = 0;
+        while (node != NIL || top > 0) {
+            while (node != NIL) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * top);
+                }
+                stack[top++] = node;
+                node = left[node];
+            }
+            node = stack[--top];
+            ranking[position[node]] = rank++;
+            node = right[node];
+        }
+        return Permutation.fromRanking(ranking);
+    }
+
+    private void insert(int i, int key) {
+        sortKey[i] = ((long) key << 32) | i;
+        priority[i] = ThreadLocalRandom.current().nextInt();
+        left[i] = NIL;
+        right[i] = NIL;
+        size[i] = 1;
+        split(root, sortKey[i]);
+        int lower = splitLeft;
+        root = merge(merge(lower, i), splitRight);
+    }
+
+    /* sets splitLeft to the keys less than k, and splitRight to the others */
+    private void split(int t, long k) {
+        if (t == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+        if (sortKey[t] < k) {
+            split(right[t], k);
+            right[t] = splitLeft;
+            update(t);
+            splitLeft = t;
+        } else {
+            split(left[t], k);
+            left[t] = splitRight;
+            update(t);
+            splitRight = t;
+        }
+    }
+
+    /* all keys in a must be less than all keys in b */
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private void update(int t) {
+        size[t] = sizeOf(left[t]) + sizeOf(right[t]) + 1;
+    }
+
+    private int sizeOf(int t) {
+        return t == NIL ? 0 : size[t];
+    }
+
+    private void checkPresent(int i) {
+        checkState(contains(i), "no key at index %d", i);
+    }
+
+    private void grow() {
+        int newLength = 2 * sortKey.length;
+        sortKey = Arrays.copyOf(sortKey, newLength);
+        priority = Arrays.copyOf(priority, newLength);
+        left = Arrays.copyOf(left, newLength);
+        right = Arrays.copyOf(right, newLength);
+        size = Arrays.copyOf(size, newLength);
+    }
+}
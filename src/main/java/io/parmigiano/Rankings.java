@@ -5,7 +5,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.function.BiPredicate;
+import java.util.function.IntBinaryOperator;
 
 import static io.parmigiano.ArrayUtil.negativeFailure;
 import static io.parmigiano.Preconditions.checkState;
@@ -28,15 +28,15 @@ final class Rankings {
      * @throws java.lang.IllegalArgumentException if {@code a} is not a valid ranking
      */
     static void checkRanking(int[] a) {
-        boolean[] used = new boolean[a.length];
+        long[] used = new long[(a.length + 63) >>> 6];
         for (int i : a) {
             if (i < 0)
                 throw new IllegalArgumentException("found negative number in ranking: " + i);
             if (i >= a.length)
                 throw new IllegalArgumentException("out-of-bounds value in ranking: " + i);
-            if (used[i])
+            if ((used[i >>> 6] & (1L << i)) != 0)
                 throw new IllegalArgumentException("duplicate number in ranking: " + i);
-            used[i] = true;
+            used[i >>> 6] |= 1L << i;
         }
     }
 
@@ -97,48 +97,6 @@ final class Rankings {
         return 0; // done
     }
 
-    static <E> int nextOffset(List<E> sorted, int idx, int offset, BiPredicate<E, E> equality) {
-        if (offset < 0) {
-            int next = idx + offset - 1;
-            if (next >= 0 && equality.test(sorted.get(next), sorted.get(idx))) {
-                return offset - 1; // decrement offset
-            }
-            return 0; // done
-        }
-        int next = idx + offset + 1;
-        if (next < sorted.size() && equality.test(sorted.get(next), sorted.get(idx))) {
-            return offset + 1; // increment offset
-        }
-        if (idx > 0 && equality.test(sorted.get(idx - 1), sorted.get(idx))) {
-            return -1; // continue with negative offset
-        }
-        return 0; // done
-    }
-
-    /* ================= shift ================= */
-
-    /**
-     * Encode an int as a non-zero int
-     * @param i an int
-     * @return {@code i + 1} if {@code i} is non-negative, otherwise {@code i}
-     */
-    static int shift(int i) {
-        return i >= 0 ? i + 1 : i;
-    }
-
-    /**
-     * Undo the shift
-     * @param shifted a non-zero number
-     * @return {@code shifted - 1} if {@code shifted} is positive, otherwise {@code shifted}
-     * @throws IllegalArgumentException if the input is zero
-     */
-    static int unshift(int shifted) {
-        if (shifted == 0) {
-            throw new IllegalArgumentException("zero is not allowed");
-        }
-        return shifted > 0 ? shifted - 1 : shifted;
-    }
-
     /* ================= sorting ================= */
 
     /**
@@ -162,72 +120,277 @@ final class Rankings {
     static int[] sorting(int[] a) {
         int[] sorted = ArrayUtil.sortedCopy(a);
         int[] ranking = new int[a.length];
-        int[] offsets = new int[a.length];
+        int[] slots = new int[a.length];
         for (int i = 0; i < a.length; i++) {
             int idx = binarySearch(sorted, a[i]);
-            if (offsets[idx] == 0) {
-                ranking[i] = idx;
-                offsets[idx] = 1; // shift(0)
-            } else {
-                // a contains duplicates
-                int offset = unshift(offsets[idx]);
-                int newOffset = nextOffset(sorted, idx, offset);
-                ranking[i] = idx + newOffset;
-                offsets[idx] = shift(newOffset);
-            }
+            int slot = slots[idx] == 0 ? idx : slots[idx] - 1;
+            ranking[i] = slot;
+            // a may contain duplicates: find the next free slot in the run of sorted[idx]
+            int next;
+            if (slot < idx)
+                next = slot - 1;
+            else if (slot + 1 < sorted.length && sorted[slot + 1] == sorted[idx])
+                next = slot + 1;
+            else
+                next = idx - 1;
+            slots[idx] = next + 1;
         }
         checkRanking(ranking);
         return ranking;
     }
 
     static <E extends Comparable<E>> int[] sorting(List<E> a) {
-        List<E> sorted = a.stream().sorted().toList();
-        int[] ranking = new int[a.size()];
-        int[] offsets = new int[a.size()];
-        for (int i = 0; i < a.size(); i++) {
-            int idx = Collections.binarySearch(sorted, a.get(i));
-            if (offsets[idx] == 0) {
-                ranking[i] = idx;
-                offsets[idx] = 1; // shift(0)
-            } else {
-                // a contains duplicates
-                int offset = unshift(offsets[idx]);
-                int newOffset = nextOffset(
-                        sorted,
-                        idx,
-                        offset,
-                        (e1, e2) -> e1.compareTo(e2) == 0);
-                ranking[i] = idx + newOffset;
-                offsets[idx] = shift(newOffset);
-            }
-        }
-        return ranking;
+        return sorting(a, Comparator.naturalOrder());
     }
 
     static <E> int[] sorting(List<E> a, Comparator<E> comp) {
         List<E> sorted = a.stream().sorted(comp).toList();
         int[] ranking = new int[a.size()];
-        int[] offsets = new int[a.size()];
+        int[] slots = new int[a.size()];
         for (int i = 0; i < a.size(); i++) {
             int idx = Collections.binarySearch(sorted, a.get(i), comp);
-            if (offsets[idx] == 0) {
-                ranking[i] = idx;
-                offsets[idx] = 1; // shift(0)
-            } else {
-                // a contains duplicates
-                int offset = unshift(offsets[idx]);
-                int newOffset = nextOffset(
-                        sorted,
-                        idx,
-                        offset,
-                        (e1, e2) -> comp.compare(e1, e2) == 0);
-                ranking[i] = idx + newOffset;
-                offsets[idx] = shift(newOffset);
+            int slot = slots[idx] == 0 ? idx : slots[idx] - 1;
+            ranking[i] = slot;
+            // a may contain duplicates: find the next free slot in the run of sorted.get(idx)
+            int next;
+            if (slot < idx)
+                next = slot - 1;
+            else if (slot + 1 < sorted.size() && comp.compare(sorted.get(slot + 1), sorted.get(idx)) == 0)
+                next = slot + 1;
+            else
+                next = idx - 1;
+            slots[idx] = next + 1;
+        }
+        return ranking;
+    }
+
+    /**
+     * Produce a stable ranking that sorts the rows {@code 0} to {@code length - 1} (exclusive)
+     * by the given order. Ties keep their relative order.
+     * @param length the number of rows
+     * @param comp an order on the row indexes
+     * @return a ranking that sorts the rows
+     */
+    static int[] sorting(int length, IntBinaryOperator comp) {
+        int[] indexes = ArrayUtil.range(length);
+        ArrayUtil.sort(indexes, comp);
+        int[] ranking = new int[length];
+        for (int j = 0; j < length; j++)
+            ranking[indexes[j]] = j;
+        return ranking;
+    }
+
+    static int[] sorting(long[] a) {
+        return sorting(a.length, (i, j) -> Long.compare(a[i], a[j]));
+    }
+
+    static int[] sorting(double[] a) {
+        return sorting(a.length, (i, j) -> Double.compare(a[i], a[j]));
+    }
+
+    static int[] sorting(float[] a) {
+        return sorting(a.length, (i, j) -> Float.compare(a[i], a[j]));
+    }
+
+    /**
+     * Produce a stable ranking that sorts the rows lexicographically by the given columns.
+     * @param columns one or more columns of equal length
+     * @return a ranking that sorts the rows
+     * @throws java.lang.IllegalArgumentException if there are no columns, or if the columns differ in length
+     */
+    static int[] sorting(Column... columns) {
+        checkState(columns.length != 0, "no columns");
+        int length = columns[0].length();
+        for (Column column : columns)
+            if (column.length() != length)
+                ArrayUtil.lengthFailure();
+        if (columns.length == 1)
+            return sorting(length, columns[0]::compare);
+        return sorting(length, (i, j) -> {
+            for (Column column : columns) {
+                int c = column.compare(i, j);
+                if (c != 0)
+                    return c;
             }
+            return 0;
+        });
+    }
+
+    /* ================= sortingTopK ================= */
+
+    /**
+     * Produce a ranking that moves the {@code k} smallest elements of the input to the front, in sorted order.
+     * Equal elements keep their relative order.
+     * The remaining elements are moved behind them, keeping their relative order.
+     * This runs in expected time {@code O(n + k log k)}.
+     * @param a an array
+     * @param k a number between {@code 0} and {@code a.length} (inclusive)
+     * @return a ranking that partially sorts the input
+     * @throws java.lang.IllegalArgumentException if {@code k} is out of range
+     */
+    static int[] sortingTopK(int[] a, int k) {
+        checkTopK(k, a.length);
+        long[] keys = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            keys[i] = ((long) a[i] << 32) | i; // order by value, then index
+        ArrayUtil.select(keys, k);
+        Arrays.sort(keys, 0, k);
+        int[] ranking = new int[a.length];
+        Arrays.fill(ranking, -1);
+        for (int j = 0; j < k; j++)
+            ranking[(int) keys[j]] = j;
+        return fillRest(ranking, k);
+    }
+
+    static <E> int[] sortingTopK(List<E> a, int k, Comparator<E> comp) {
+        checkTopK(k, a.size());
+        @SuppressWarnings("unchecked")
+        E[] elements = (E[]) a.toArray();
+        int[] indexes = ArrayUtil.range(elements.length);
+        IntBinaryOperator order = (i, j) -> {
+            int c = comp.compare(elements[i], elements[j]);
+            return c != 0 ? c : Integer.compare(i, j);
+        };
+        ArrayUtil.select(indexes, k, order);
+        Integer[] top = new Integer[k];
+        for (int j = 0; j < k; j++)
+            top[j] = indexes[j];
+        Arrays.sort(top, order::applyAsInt);
+        int[] ranking = new int[elements.length];
+        Arrays.fill(ranking, -1);
+        for (int j = 0; j < k; j++)
+            ranking[top[j]] = j;
+        return fillRest(ranking, k);
+    }
+
+    private static void checkTopK(int k, int length) {
+        if (k < 0 || k > length)
+            throw new IllegalArgumentException("k out of range: " + k + ", length is " + length);
+    }
+
+    private static int[] fillRest(int[] ranking, int next) {
+        for (int i = 0; i < ranking.length; i++)
+            if (ranking[i] < 0)
+                ranking[i] = next++;
+        return ranking;
+    }
+
+    /* ================= merging ================= */
+
+    /**
+     * Produce a stable ranking that merges presorted runs.
+     * Run {@code r} consists of the elements from {@code runBoundaries[r]} (inclusive)
+     * to {@code runBoundaries[r + 1]} (exclusive).
+     * Equal elements are taken from the earlier run first.
+     * This uses a loser tree, and runs in time {@code O(n log k)}, where {@code k} is the number of runs.
+     * @param data an array which is sorted within each run
+     * @param runBoundaries a non-decreasing array that starts with {@code 0} and ends with {@code data.length}
+     * @return a ranking that sorts the input
+     * @throws java.lang.IllegalArgumentException if the run boundaries are invalid, or if a run is not sorted
+     */
+    static int[] merging(int[] data, int[] runBoundaries) {
+        return merging(data.length, runBoundaries, (i, j) -> Integer.compare(data[i], data[j]));
+    }
+
+    static <E> int[] merging(List<E> data, int[] runBoundaries, Comparator<E> comp) {
+        @SuppressWarnings("unchecked")
+        E[] elements = (E[]) data.toArray();
+        return merging(elements.length, runBoundaries, (i, j) -> comp.compare(elements[i], elements[j]));
+    }
+
+    private static int[] merging(int length, int[] runBoundaries, IntBinaryOperator comp) {
+        checkRunBoundaries(length, runBoundaries, comp);
+        int[] ranking = new int[length];
+        int k = runBoundaries.length - 1;
+        if (k == 0)
+            return ranking;
+        int[] pos = Arrays.copyOf(runBoundaries, k);
+        int[] end = Arrays.copyOfRange(runBoundaries, 1, k + 1);
+        LoserTree tree = new LoserTree(pos, end, comp);
+        for (int j = 0; j < length; j++) {
+            int winner = tree.winner();
+            ranking[pos[winner]++] = j;
+            tree.replay(winner);
         }
         return ranking;
     }
 
+    private static void checkRunBoundaries(int length, int[] runBoundaries, IntBinaryOperator comp) {
+        checkState(runBoundaries.length >= 1, "no run boundaries");
+        checkState(runBoundaries[0] == 0, "first run boundary must be 0, but was %d", runBoundaries[0]);
+        checkState(runBoundaries[runBoundaries.length - 1] == length,
+                "last run boundary must be the data length, but was %d", runBoundaries[runBoundaries.length - 1]);
+        for (int r = 0; r < runBoundaries.length - 1; r++) {
+            checkState(runBoundaries[r] <= runBoundaries[r + 1], "decreasing run boundary: %d", runBoundaries[r + 1]);
+            for (int i = runBoundaries[r] + 1; i < runBoundaries[r + 1]; i++)
+                checkState(comp.applyAsInt(i - 1, i) <= 0, "run is not sorted at index %d", i);
+        }
+    }
+
+    /**
+     * A tournament tree over {@code k} runs. The leaves are the runs {@code 0} to {@code k - 1},
+     * stored implicitly at the nodes {@code k} to {@code 2k - 1}. Each inner node stores
+     * the loser of the match that was played there, and {@code tree[0]} is the overall winner.
+     */
+    private static final class LoserTree {
+
+        private final int[] tree;
+        private final int[] pos;
+        private final int[] end;
+        private final IntBinaryOperator comp;
+
+        LoserTree(int[] pos, int[] end, IntBinaryOperator comp) {
+            this.tree = new int[pos.length];
+            this.pos = pos;
+            this.end = end;
+            this.comp = comp;
+            tree[0] = build(1);
+        }
+
+        private int build(int node) {
+            if (node >= tree.length)
+                return node - tree.length;
+            int left = build(2 * node);
+            int right = build(2 * node + 1);
+            if (beats(left, right)) {
+                tree[node] = right;
+                return left;
+            }
+            tree[node] = left;
+            return right;
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        /**
+         * Restore the tree after the head of the run {@code run} has changed.
+         * @param run the previous winner
+         */
+        void replay(int run) {
+            int winner = run;
+            for (int node = (run + tree.length) >>> 1; node >= 1; node >>>= 1) {
+                if (beats(tree[node], winner)) {
+                    int loser = winner;
+                    winner = tree[node];
+                    tree[node] = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        /* an exhausted run loses; ties go to the earlier run */
+        private boolean beats(int r, int s) {
+            if (pos[r] == end[r])
+                return false;
+            if (pos[s] == end[s])
+                return true;
+            int c = comp.applyAsInt(pos[r], pos[s]);
+            return c < 0 || c == 0 && r < s;
+        }
+    }
+
     /* ================= from ================= */
 
     /**
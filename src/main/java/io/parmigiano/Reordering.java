@@ -0,0 +1,235 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Vertex orderings of graphs in compressed sparse row form, and symmetric
+ * reordering of sparse matrices. An ordering is returned as a permutation that
+ * moves each vertex to its new position. Diagonal entries do not count towards the degree.
+ */
+final class Reordering {
+
+    private final int n;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final int[] degree;
+
+    private Reordering(int[] rowPtr, int[] colIdx) {
+        this.n = checkCsr(rowPtr, colIdx);
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.degree = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int e = rowPtr[i]; e < rowPtr[i + 1]; e++) {
+                if (colIdx[e] != i) {
+                    degree[i]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Order the vertices by ascending degree; vertices of equal degree keep their order.
+     *
+     * @param rowPtr row offsets
+     * @param colIdx column indexes
+     * @return a permutation that moves each vertex to its new position
+     */
+    static Permutation byDegree(int[] rowPtr, int[] colIdx) {
+        Reordering r = new Reordering(rowPtr, colIdx);
+        return toPermutation(r.degreeOrder(), false);
+    }
+
+    /**
+     * Reverse Cuthill-McKee ordering. Each connected component is numbered by a breadth-first search
+     * from a pseudo-peripheral vertex, visiting neighbors by ascending degree, and the whole order is reversed.
+     *
+     * @param rowPtr row offsets
+     * @param colIdx column indexes
+     * @return a permutation that moves each vertex to its new position
+     */
+    static Permutation reverseCuthillMcKee(int[] rowPtr, int[] colIdx) {
+        Reordering r = new Reordering(rowPtr, colIdx);
+        return toPermutation(r.cuthillMcKeeOrder(), true);
+    }
+
+    /* order[k] is the vertex at position k */
+    private static Permutation toPermutation(int[] order, boolean reverse) {
+        int[] image = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            image[order[k]] = reverse ? order.length - 1 - k : k;
+        }
+        return Permutation.fromImageUnchecked(image);
+    }
+
+    /* stable counting sort by degree */
+    private int[] degreeOrder() {
+        int maxDegree = 0;
+        for (int d : degree) {
+            maxDegree = Math.max(maxDegree, d);
+        }
+        int[] start = new int[maxDegree + 2];
+        for (int d : degree) {
+            start[d + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[start[degree[i]]++] = i;
+        }
+        return order;
+    }
+
+    private int[] cuthillMcKeeOrder() {
+        int[] byDegree = degreeOrder();
+        boolean[] numbered = new boolean[n];
+        int[] order = new int[n];
+        int[] level = new int[n]; // scratch for the pseudo-peripheral search
+        int[] queue = new int[n]; // scratch for the pseudo-peripheral search
+        long[] keys = new long[n]; // scratch for sorting neighbors
+        int size = 0;
+        for (int candidate : byDegree) {
+            if (numbered[candidate]) {
+                continue;
+            }
+            int root = pseudoPeripheral(candidate, numbered, level, queue);
+            numbered[root] = true;
+            int head = size;
+            order[size++] = root;
+            while (head < size) {
+                int u = order[head++];
+                int count = 0;
+                for (int e = rowPtr[u]; e < rowPtr[u + 1]; e++) {
+                    int v = colIdx[e];
+                    if (!numbered[v]) {
+                        numbered[v] = true;
+                        keys[count++] = ((long) degree[v] << 32) | v;
+                    }
+                }
+                Arrays.sort(keys, 0, count);
+                for (int k = 0; k < count; k++) {
+                    order[size++] = (int) keys[k];
+                }
+            }
+        }
+        return order;
+    }
+
+    /* George-Liu: move to a vertex of least degree in the last level, while the eccentricity grows */
+    private int pseudoPeripheral(int start, boolean[] numbered, int[] level, int[] queue) {
+        int root = start;
+        int eccentricity = -1;
+        while (true) {
+            // breadth-first search over unnumbered vertices; level[v] is one more than the distance
+            int size = 0;
+            queue[size++] = root;
+            level[root] = 1;
+            int head = 0;
+            while (head < size) {
+                int u = queue[head++];
+                for (int e = rowPtr[u]; e < rowPtr[u + 1]; e++) {
+                    int v = colIdx[e];
+                    if (!numbered[v] && level[v] == 0) {
+                        level[v] = level[u] + 1;
+                        queue[size++] = v;
+                    }
+                }
+            }
+            int depth = level[queue[size - 1]];
+            int next = -1;
+            for (int k = size - 1; k >= 0 && level[queue[k]] == depth; k--) {
+                if (next < 0 || degree[queue[k]] < degree[next]) {
+                    next = queue[k];
+                }
+            }
+            for (int k = 0; k < size; k++) {
+                level[queue[k]] = 0;
+            }
+            if (depth <= eccentricity) {
+                return root;
+            }
+            eccentricity = depth;
+            root = next;
+        }
+    }
+
+    /**
+     * Compute {@code P A P^T}, where {@code P} moves row and column {@code i} to {@code p.apply(i)}.
+     * This uses two counting passes, so the columns in each row of the result are ascending.
+     *
+     * @param p a permutation of the rows
+     * @param rowPtr row offsets
+     * @param colIdx column indexes
+     * @param values values, or {@code null}
+     * @return the permuted matrix
+     */
+    static CsrMatrix applySymmetric(Permutation p, int[] rowPtr, int[] colIdx, double[] values) {
+        int n = checkCsr(rowPtr, colIdx);
+        checkState(values == null || values.length >= rowPtr[n], "values is too short: %d", values == null ? 0 : values.length);
+        checkState(p.isIdentity() || p.maxMovedIndex() < n, "the permutation moves a point outside of 0, ..., %d", n - 1);
+        int[] image = p.toImage(new int[n]);
+        int[] inverse = new int[n];
+        for (int i = 0; i < n; i++) {
+            inverse[image[i]] = i;
+        }
+        int nnz = rowPtr[n];
+        // first pass: the transpose of the result, visiting the new rows in order
+        int[] tPtr = new int[n + 1];
+        for (int e = 0; e < nnz; e++) {
+            tPtr[image[colIdx[e]] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            tPtr[i + 1] += tPtr[i];
+        }
+        int[] tIdx = new int[nnz];
+        double[] tVal = values == null ? null : new double[nnz];
+        int[] fill = Arrays.copyOf(tPtr, n);
+        for (int r = 0; r < n; r++) {
+            int i = inverse[r];
+            for (int e = rowPtr[i]; e < rowPtr[i + 1]; e++) {
+                int pos = fill[image[colIdx[e]]]++;
+                tIdx[pos] = r;
+                if (tVal != null) {
+                    tVal[pos] = values[e];
+                }
+            }
+        }
+        // second pass: transpose back
+        int[] newPtr = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            newPtr[r + 1] = newPtr[r] + rowPtr[inverse[r] + 1] - rowPtr[inverse[r]];
+        }
+        int[] newIdx = new int[nnz];
+        double[] newVal = values == null ? null : new double[nnz];
+        System.arraycopy(newPtr, 0, fill, 0, n);
+        for (int c = 0; c < n; c++) {
+            for (int e = tPtr[c]; e < tPtr[c + 1]; e++) {
+                int pos = fill[tIdx[e]]++;
+                newIdx[pos] = c;
+                if (newVal != null) {
+                    newVal[pos] = tVal[e];
+                }
+            }
+        }
+        return new CsrMatrix(newPtr, newIdx, newVal);
+    }
+
+    /* returns the number of rows */
+    private static int checkCsr(int[] rowPtr, int[] colIdx) {
+        checkState(rowPtr.length >= 1, "rowPtr is empty");
+        int n = rowPtr.length - 1;
+        checkState(rowPtr[0] == 0, "rowPtr[0] is not 0: %d", rowPtr[0]);
+        for (int i = 0; i < n; i++) {
+            checkState(rowPtr[i] <= rowPtr[i + 1], "rowPtr is not ascending at row %d", i);
+        }
+        checkState(rowPtr[n] <= colIdx.length, "colIdx is too short: %d", colIdx.length);
+        for (int e = 0; e < rowPtr[n]; e++) {
+            checkState(colIdx[e] >= 0 && colIdx[e] < n, "column index out of range: %d", colIdx[e]);
+        }
+        return n;
+    }
+}
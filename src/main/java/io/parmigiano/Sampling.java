@@ -0,0 +1,157 @@
+package io.parmigiano;
+
+import java.util.random.RandomGenerator;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Uniform sampling of restricted permutations in linear time.
+ * Each method returns the nontrivial cycles of the sampled permutation.
+ */
+final class Sampling {
+
+    private Sampling() {
+    }
+
+    /**
+     * Sample a permutation of {@code 0, ..., n - 1} that consists of a single cycle.
+     * Reading a uniformly shuffled array as one cycle is equivalent to Sattolo's algorithm.
+     *
+     * @param n a non-negative number
+     * @param random a source of randomness
+     * @return the cycles of a uniformly chosen {@code n}-cycle
+     */
+    static int[][] cycle(int n, RandomGenerator random) {
+        checkState(n >= 0, "negative length: %d", n);
+        if (n < 2) {
+            return new int[0][];
+        }
+        return new int[][]{shuffledRange(n, random)};
+    }
+
+    /**
+     * Sample a permutation with the given cycle type.
+     * The cycle lengths are read off from a uniformly shuffled array.
+     *
+     * @param cycleType positive cycle lengths, which add up to {@code n}
+     * @param random a source of randomness
+     * @return the cycles of a uniformly chosen permutation of {@code 0, ..., n - 1} with the given cycle type
+     */
+    static int[][] cycleType(int[] cycleType, RandomGenerator random) {
+        int n = 0;
+        int nontrivial = 0;
+        for (int length : cycleType) {
+            checkState(length >= 1, "cycle length must be positive: %d", length);
+            n = Math.addExact(n, length);
+            if (length >= 2) {
+                nontrivial++;
+            }
+        }
+        int[] shuffled = shuffledRange(n, random);
+        int[][] result = new int[nontrivial][];
+        int pos = 0;
+        int c = 0;
+        for (int length : cycleType) {
+            if (length >= 2) {
+                int[] cycle = new int[length];
+                System.arraycopy(shuffled, pos, cycle, 0, length);
+                result[c++] = cycle;
+            }
+            pos += length;
+        }
+        return result;
+    }
+
+    /**
+     * Sample an involution. The last remaining element is a fixed point with probability
+     * {@code I(m - 1) / I(m)}, where {@code I(m)} is the number of involutions of {@code m} elements,
+     * and is otherwise paired with a uniformly chosen remaining element.
+     *
+     * @param n a non-negative number
+     * @param random a source of randomness
+     * @return the cycles of a uniformly chosen involution of {@code 0, ..., n - 1}
+     */
+    static int[][] involution(int n, RandomGenerator random) {
+        checkState(n >= 0, "negative length: %d", n);
+        // fixed[m] = I(m - 1) / I(m), using I(m) = I(m - 1) + (m - 1) I(m - 2)
+        double[] fixed = new double[n + 1];
+        if (n >= 1) {
+            fixed[1] = 1;
+        }
+        for (int m = 2; m <= n; m++) {
+            fixed[m] = 1 / (1 + (m - 1) * fixed[m - 1]);
+        }
+        int[] remaining = ArrayUtil.range(n);
+        int[][] pairs = new int[n / 2][];
+        int numPairs = 0;
+        int m = n;
+        while (m >= 2) {
+            int last = remaining[m - 1];
+            if (random.nextDouble() < fixed[m]) {
+                m -= 1;
+                continue;
+            }
+            int j = random.nextInt(m - 1);
+            pairs[numPairs++] = new int[]{remaining[j], last};
+            remaining[j] = remaining[m - 2];
+            m -= 2;
+        }
+        int[][] result = new int[numPairs][];
+        System.arraycopy(pairs, 0, result, 0, numPairs);
+        return result;
+    }
+
+    /**
+     * Sample a derangement, using the algorithm of Martinez, Panholzer and Prodinger,
+     * "Generating random derangements" (2008). This runs in expected linear time.
+     *
+     * @param n a non-negative number other than {@code 1}
+     * @param random a source of randomness
+     * @return the cycles of a uniformly chosen permutation of {@code 0, ..., n - 1} without fixed points
+     */
+    static int[][] derangement(int n, RandomGenerator random) {
+        checkState(n >= 0, "negative length: %d", n);
+        checkState(n != 1, "there is no derangement of length %d", n);
+        // close[u] = (u - 1) D(u - 2) / D(u), the probability that the current cycle is closed.
+        // Using D(u) = (u - 1) (D(u - 1) + D(u - 2)), this is 1 / (1 + r) where r = D(u - 1) / D(u - 2).
+        double[] close = new double[n + 1];
+        double r = 0; // D(1) / D(0)
+        for (int u = 2; u <= n; u++) {
+            close[u] = 1 / (1 + r);
+            r = (u - 1) * (1 + 1 / r); // D(u) / D(u - 1), may be infinite
+        }
+        int[] a = ArrayUtil.range(n);
+        boolean[] mark = new boolean[n];
+        int i = n - 1;
+        int u = n;
+        while (u >= 2) {
+            if (!mark[i]) {
+                int j;
+                do {
+                    j = random.nextInt(i);
+                } while (mark[j]);
+                int tmp = a[i];
+                a[i] = a[j];
+                a[j] = tmp;
+                if (random.nextDouble() < close[u]) {
+                    mark[j] = true;
+                    u -= 1;
+                }
+                u -= 1;
+            }
+            i -= 1;
+        }
+        return CycleUtil.cycles(a);
+    }
+
+    private static int[] shuffledRange(int n, RandomGenerator random) {
+        int[] a = ArrayUtil.range(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = a[j];
+            a[j] = a[i];
+            a[i] = tmp;
+        }
+        return a;
+    }
+}
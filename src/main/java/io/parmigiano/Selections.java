@@ -0,0 +1,320 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * The selections of {@code k} out of {@code n} elements {@code 0, ..., n - 1}, in lexicographic order.
+ * These are either the ordered selections ({@code k}-permutations), of which there are {@code n! / (n - k)!},
+ * or the unordered selections ({@code k}-subsets, or combinations), of which there are
+ * {@code n! / (k! (n - k)!)}. A combination is represented as an ascending array.
+ *
+ * <p>Each selection has a rank, which is its position in lexicographic order.
+ * Streams are lazy and splittable; stepping to the next selection takes amortized time {@code O(k)}.
+ * A range of ranks can be streamed separately, so the search space can be partitioned across workers.
+ * The number of selections must not exceed {@link Long#MAX_VALUE}.
+ */
+public final class Selections {
+
+    private final int n;
+    private final int k;
+    private final boolean ordered;
+    private final long count;
+
+    private Selections(int n, int k, boolean ordered) {
+        checkState(n >= 0, "negative n: %d", n);
+        checkState(k >= 0 && k <= n, "k out of range: %d", k);
+        this.n = n;
+        this.k = k;
+        this.ordered = ordered;
+        this.count = ordered ? permutationCount(n, k) : binomial(n, k);
+    }
+
+    /**
+     * The ordered selections of {@code k} out of {@code n} elements.
+     *
+     * @param n the number of elements
+     * @param k the number of selected elements
+     * @return the {@code k}-permutations of {@code n} elements
+     * @throws java.lang.IllegalArgumentException if {@code k} is negative or greater than {@code n}
+     * @throws java.lang.ArithmeticException if there are more than {@code Long.MAX_VALUE} selections
+     */
+    public static Selections permutations(int n, int k) {
+        return new Selections(n, k, true);
+    }
+
+    /**
+     * The unordered selections of {@code k} out of {@code n} elements.
+     *
+     * @param n the number of elements
+     * @param k the number of selected elements
+     * @return the {@code k}-subsets of {@code n} elements
+     * @throws java.lang.IllegalArgumentException if {@code k} is negative or greater than {@code n}
+     * @throws java.lang.ArithmeticException if there are more than {@code Long.MAX_VALUE} selections
+     */
+    public static Selections combinations(int n, int k) {
+        return new Selections(n, k, false);
+    }
+
+    /**
+     * Get the number of selections.
+     *
+     * @return the number of selections
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Stream all selections in lexicographic order.
+     *
+     * @return a stream of arrays of length {@code k}
+     */
+    public Stream<int[]> stream() {
+        return stream(0, count);
+    }
+
+    /**
+     * Stream the selections from rank {@code fromRank} (inclusive) to rank {@code toRank} (exclusive).
+     *
+     * @param fromRank the rank of the first selection
+     * @param toRank one more than the rank of the last selection
+     * @return a stream of arrays of length {@code k}
+     * @throws java.lang.IllegalArgumentException if the range is invalid
+     */
+    public Stream<int[]> stream(long fromRank, long toRank) {
+        checkState(fromRank >= 0 && fromRank <= toRank && toRank <= count,
+                "invalid range: %s", fromRank + ", " + toRank);
+        return StreamSupport.stream(new SelectionSpliterator(fromRank, toRank), false);
+    }
+
+    /**
+     * Find the position of a selection in lexicographic order.
+     *
+     * @param selection a selection
+     * @return the rank of {@code selection}
+     * @throws java.lang.IllegalArgumentException if the input is not a selection
+     */
+    public long rank(int[] selection) {
+        checkSelection(selection);
+        return ordered ? rankPermutation(selection) : rankCombination(selection);
+    }
+
+    /**
+     * Find the selection at a position in lexicographic order.
+     *
+     * @param rank a number between {@code 0} (inclusive) and {@code count()} (exclusive)
+     * @return the selection of rank {@code rank}
+     * @throws java.lang.IllegalArgumentException if {@code rank} is out of range
+     */
+    public int[] unrank(long rank) {
+        checkState(rank >= 0 && rank < count, "rank out of range: %s", rank);
+        return ordered ? unrankPermutation(rank) : unrankCombination(rank);
+    }
+
+    /* no table of size n; ascending rules out duplicates, and k-permutations compare the k values pairwise */
+    private void checkSelection(int[] selection) {
+        checkState(selection.length == k, "expecting length %d", k);
+        for (int i = 0; i < k; i++) {
+            int v = selection[i];
+            checkState(v >= 0 && v < n, "out of range: %d", v);
+            if (!ordered) {
+                checkState(i == 0 || selection[i - 1] < v, "not ascending: %d", v);
+                continue;
+            }
+            for (int j = 0; j < i; j++)
+                checkState(selection[j] != v, "duplicate element: %d", v);
+        }
+    }
+
+    /* ================= k-permutations ================= */
+
+    private long rankPermutation(int[] a) {
+        long rank = 0;
+        long weight = count;
+        for (int i = 0; i < k; i++) {
+            weight /= n - i; // number of k-permutations that share a prefix of length i + 1
+            int smallerUnused = a[i];
+            for (int j = 0; j < i; j++)
+                if (a[j] < a[i])
+                    smallerUnused--;
+            rank += smallerUnused * weight;
+        }
+        return rank;
+    }
+
+    private int[] unrankPermutation(long rank) {
+        int[] result = new int[k];
+        int[] usedSorted = new int[k];
+        long weight = count;
+        for (int i = 0; i < k; i++) {
+            weight /= n - i;
+            int v = (int) (rank / weight);
+            rank %= weight;
+            // v-th unused value
+            int pos = 0;
+            while (pos < i && usedSorted[pos] <= v) {
+                v++;
+                pos++;
+            }
+            System.arraycopy(usedSorted, pos, usedSorted, pos + 1, i - pos);
+            usedSorted[pos] = v;
+            result[i] = v;
+        }
+        return result;
+    }
+
+    /* advance to the lexicographic successor, or return false */
+    private boolean nextPermutation(int[] a, boolean[] used) {
+        for (int i = k - 1; i >= 0; i--) {
+            used[a[i]] = false;
+            for (int v = a[i] + 1; v < n; v++) {
+                if (!used[v]) {
+                    a[i] = v;
+                    used[v] = true;
+                    int u = 0;
+                    for (int j = i + 1; j < k; j++) {
+                        while (used[u])
+                            u++;
+                        a[j] = u;
+                        used[u] = true;
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /* ================= combinations ================= */
+
+    private long rankCombination(int[] c) {
+        long rank = count - 1;
+        for (int i = 0; i < k; i++)
+            rank -= binomial(n - 1 - c[i], k - i);
+        return rank;
+    }
+
+    private int[] unrankCombination(long rank) {
+        int[] result = new int[k];
+        int v = 0;
+        for (int i = 0; i < k; i++) {
+            while (true) {
+                long withV = binomial(n - 1 - v, k - 1 - i); // combinations that continue with v
+                if (rank < withV)
+                    break;
+                rank -= withV;
+                v++;
+            }
+            result[i] = v++;
+        }
+        return result;
+    }
+
+    private boolean nextCombination(int[] c) {
+        int i = k - 1;
+        while (i >= 0 && c[i] == n - k + i)
+            i--;
+        if (i < 0)
+            return false;
+        c[i]++;
+        for (int j = i + 1; j < k; j++)
+            c[j] = c[j - 1] + 1;
+        return true;
+    }
+
+    /* ================= counting ================= */
+
+    private static long permutationCount(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++)
+            result = Math.multiplyExact(result, n - i);
+        return result;
+    }
+
+    static long binomial(int n, int k) {
+        if (k < 0 || k > n)
+            return 0;
+        k = Math.min(k, n - k);
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            // result * (n - i) is divisible by (i + 1)
+            long divisor = i + 1;
+            long g = gcd(result, divisor);
+            result = Math.multiplyExact(result / g, (n - i) / (divisor / g));
+        }
+        return result;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Streams the ranks {@code rank} (inclusive) to {@code end} (exclusive).
+     * The current selection is unranked lazily, and then stepped to its successor.
+     */
+    private final class SelectionSpliterator implements Spliterator<int[]> {
+
+        private long rank;
+        private final long end;
+        private int[] current; // selection of rank - 1, or null
+        private boolean[] used; // elements of current, for k-permutations
+
+        SelectionSpliterator(long rank, long end) {
+            this.rank = rank;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            if (rank >= end)
+                return false;
+            if (current == null) {
+                current = unrank(rank);
+                if (ordered) {
+                    used = new boolean[n];
+                    for (int v : current)
+                        used[v] = true;
+                }
+            } else if (ordered) {
+                nextPermutation(current, used);
+            } else {
+                nextCombination(current);
+            }
+            rank++;
+            action.accept(Arrays.copyOf(current, k));
+            return true;
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            if (current != null || end - rank < 2)
+                return null;
+            long mid = rank + (end - rank) / 2;
+            Spliterator<int[]> prefix = new SelectionSpliterator(rank, mid);
+            rank = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - rank;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+}
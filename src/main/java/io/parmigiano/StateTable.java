@@ -0,0 +1,192 @@
+package io.parmigiano;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * A map from non-negative {@code long} keys, the ranks of states, to small numbers.
+ * Absent keys map to zero, so a non-zero value also marks a key as visited.
+ * There are two implementations: a dense one that is indexed by key, and a sparse hash table.
+ */
+abstract class StateTable {
+
+    /**
+     * The largest number of keys that the dense table supports.
+     */
+    static final long MAX_DENSE_STATES = 1L << 40;
+
+    /**
+     * The largest number of entries that the sparse table can hold, {@code 2^29}.
+     */
+    static final int MAX_SPARSE_ENTRIES = Sparse.MAX_CAPACITY / 2;
+
+    /**
+     * @param key a non-negative number
+     * @return the stored value, or zero if the key is absent
+     */
+    abstract int get(long key);
+
+    /**
+     * @param key a non-negative number
+     * @param value a number between {@code 1} and the maximal value of this table
+     * @throws java.lang.IllegalArgumentException if the table is full
+     */
+    abstract void set(long key, int value);
+
+    abstract boolean isDense();
+
+    /**
+     * Choose a table for keys {@code 0, ..., states - 1}. The dense table is chosen if it can hold
+     * all keys, and if {@code tables} fully populated dense tables would use at most half of the maximal heap.
+     *
+     * @param states the number of possible keys
+     * @param maxValue the largest value, at most {@code 255}
+     * @param tables the number of tables that will be created
+     * @return a new table
+     */
+    static StateTable create(long states, int maxValue, int tables) {
+        int bits = Dense.bitsPerEntry(maxValue);
+        if (states <= MAX_DENSE_STATES
+                && states / 8 * bits * tables <= Runtime.getRuntime().maxMemory() / 2) {
+            return new Dense(states, bits);
+        }
+        return new Sparse();
+    }
+
+    /**
+     * Values packed into {@code long} words, at a fixed number of bits per key.
+     * The words are stored in pages, which are allocated on the first write,
+     * so memory grows with the part of the key range that is touched.
+     */
+    private static final class Dense extends StateTable {
+
+        private static final int PAGE_BITS = 13; // words per page: 2^13, or 64 KiB
+
+        private final long[][] pages;
+        private final int bitsPerEntry;
+        private final int entriesPerWordLog;
+        private final long mask;
+
+        Dense(long states, int bitsPerEntry) {
+            this.bitsPerEntry = bitsPerEntry;
+            this.entriesPerWordLog = Integer.numberOfTrailingZeros(64 / bitsPerEntry);
+            this.mask = (1L << bitsPerEntry) - 1;
+            long words = (states + (1L << entriesPerWordLog) - 1) >>> entriesPerWordLog;
+            this.pages = new long[(int) ((words + (1L << PAGE_BITS) - 1) >>> PAGE_BITS)][];
+        }
+
+        /* 1, 2, 4 or 8, so that entries do not straddle words */
+        static int bitsPerEntry(int maxValue) {
+            int bits = 1;
+            while ((1 << bits) <= maxValue) {
+                bits *= 2;
+            }
+            return bits;
+        }
+
+        @Override
+        int get(long key) {
+            long word = key >>> entriesPerWordLog;
+            long[] page = pages[(int) (word >>> PAGE_BITS)];
+            if (page == null) {
+                return 0;
+            }
+            int shift = (int) (key & ((1L << entriesPerWordLog) - 1)) * bitsPerEntry;
+            return (int) ((page[(int) (word & ((1 << PAGE_BITS) - 1))] >>> shift) & mask);
+        }
+
+        @Override
+        void set(long key, int value) {
+            long word = key >>> entriesPerWordLog;
+            int p = (int) (word >>> PAGE_BITS);
+            long[] page = pages[p];
+            if (page == null) {
+                page = new long[1 << PAGE_BITS];
+                pages[p] = page;
+            }
+            int shift = (int) (key & ((1L << entriesPerWordLog) - 1)) * bitsPerEntry;
+            int w = (int) (word & ((1 << PAGE_BITS) - 1));
+            page[w] = (page[w] & ~(mask << shift)) | ((long) value << shift);
+        }
+
+        @Override
+        boolean isDense() {
+            return true;
+        }
+    }
+
+    /**
+     * A hash table with open addressing and linear probing, for keys from a range that is
+     * too large for the dense table. Memory grows with the number of stored keys.
+     */
+    private static final class Sparse extends StateTable {
+
+        private static final int MAX_CAPACITY = 1 << 30;
+
+        private long[] keys = new long[16]; // key + 1, or 0 for an empty slot
+        private byte[] values = new byte[16];
+        private int size;
+
+        @Override
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == 0) {
+                    return 0;
+                }
+                if (k == key + 1) {
+                    return values[i] & 0xff;
+                }
+            }
+        }
+
+        @Override
+        void set(long key, int value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0 && keys[i] != key + 1) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                if (2 * (size + 1) > keys.length) {
+                    grow();
+                    set(key, value);
+                    return;
+                }
+                keys[i] = key + 1;
+                size++;
+            }
+            values[i] = (byte) value;
+        }
+
+        @Override
+        boolean isDense() {
+            return false;
+        }
+
+        private void grow() {
+            checkState(keys.length < MAX_CAPACITY, "too many states: %d", size);
+            long[] oldKeys = keys;
+            byte[] oldValues = values;
+            keys = new long[2 * oldKeys.length];
+            values = new byte[2 * oldKeys.length];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) {
+                    continue;
+                }
+                int i = slot(oldKeys[j] - 1, mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.parmigiano;
+
+/**
+ * Receives the steps of an enumeration of all arrangements of {@code n} elements,
+ * see {@link Permutation#visitSwaps(int, SwapVisitor)}.
+ * Each step exchanges the elements at two positions.
+ */
+@FunctionalInterface
+public interface SwapVisitor {
+
+    /**
+     * Called after each step of the enumeration.
+     *
+     * @param i a position
+     * @param j another position
+     */
+    void swap(int i, int j);
+}
@@ -0,0 +1,70 @@
+package io.parmigiano;
+
+/**
+ * Enumerations of the symmetric group by successive transpositions.
+ * None of these methods allocate memory per step.
+ */
+final class Swaps {
+
+    private Swaps() {
+    }
+
+    /**
+     * Heap's algorithm, iterative version.
+     *
+     * @param n the number of elements
+     * @param visitor receives {@code n! - 1} swaps
+     */
+    static void heap(int n, SwapVisitor visitor) {
+        int[] c = new int[n];
+        int i = 1;
+        while (i < n) {
+            if (c[i] < i) {
+                if (i % 2 == 0)
+                    visitor.swap(0, i);
+                else
+                    visitor.swap(c[i], i);
+                c[i] += 1;
+                i = 1;
+            } else {
+                c[i] = 0;
+                i += 1;
+            }
+        }
+    }
+
+    /**
+     * Plain changes, also known as the Steinhaus-Johnson-Trotter algorithm.
+     * This follows Knuth's Algorithm P (TAOCP 7.2.1.2), which takes constant amortized time per step.
+     *
+     * @param n the number of elements
+     * @param visitor receives {@code n! - 1} swaps of adjacent positions
+     */
+    static void plainChanges(int n, SwapVisitor visitor) {
+        // 1-based, as in the book
+        int[] c = new int[n + 1];
+        int[] o = new int[n + 1];
+        for (int j = 1; j <= n; j++)
+            o[j] = 1;
+        while (true) {
+            int j = n;
+            int s = 0;
+            while (true) {
+                if (j <= 1)
+                    return;
+                int q = c[j] + o[j];
+                if (q >= 0 && q < j) {
+                    int a = j - c[j] + s - 1;
+                    int b = j - q + s - 1;
+                    visitor.swap(Math.min(a, b), Math.max(a, b));
+                    c[j] = q;
+                    break;
+                }
+                if (q == j)
+                    s += 1;
+                o[j] = -o[j];
+                j -= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set forest over {@code 0, ..., n - 1}, with union by size and path halving.
+ */
+final class UnionFind {
+
+    private final int[] parent;
+    private final int[] size;
+
+    UnionFind(int n) {
+        this.parent = ArrayUtil.range(n);
+        this.size = new int[n];
+        Arrays.fill(size, 1);
+    }
+
+    int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    void union(int i, int j) {
+        int a = find(i);
+        int b = find(j);
+        if (a == b) {
+            return;
+        }
+        if (size[a] < size[b]) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        parent[b] = a;
+        size[a] += size[b];
+    }
+
+    /**
+     * Collect the sets, ordered by their least element.
+     * Each set is sorted.
+     *
+     * @param minSize the minimal size of sets to collect
+     * @return the sets that have at least {@code minSize} elements
+     */
+    int[][] sets(int minSize) {
+        int n = parent.length;
+        int[] id = new int[n]; // root -> set number + 1
+        int[] fill = new int[n];
+        int numSets = 0;
+        for (int i = 0; i < n; i++) {
+            int root = find(i);
+            if (size[root] >= minSize && id[root] == 0) {
+                id[root] = ++numSets;
+            }
+        }
+        int[][] result = new int[numSets][];
+        for (int i = 0; i < n; i++) {
+            int root = find(i);
+            if (id[root] == 0) {
+                continue;
+            }
+            int s = id[root] - 1;
+            if (result[s] == null) {
+                result[s] = new int[size[root]];
+            }
+            result[s][fill[s]++] = i;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,245 @@
+package io.parmigiano;
+
+import java.util.Arrays;
+
+import static io.parmigiano.Preconditions.checkState;
+
+/**
+ * Finds a shortest product of generators that is equal to a target permutation,
+ * by bidirectional breadth-first search in the Cayley graph.
+ *
+ * <p>States are identified by their rank in lexicographic order, so a search over
+ * {@code n} points can visit up to {@code n!} states. For each visited state, only the index of
+ * the generator that first reached it is stored; this is enough to reconstruct the word,
+ * and a zero entry marks an unvisited state. Each frontier is kept as an array of ranks.
+ *
+ * <p>If two tables of {@code n!} entries, packed at {@code 1, 2, 4} or {@code 8} bits per state,
+ * fit in half of the maximal heap, the tables are indexed directly by rank, and their pages are
+ * allocated on first write. With {@code 4} bits per state, {@code 10^9} states take about 500 MB per side.
+ * Otherwise, for example for small subgroups on many points, the visited states are kept in a hash table,
+ * which holds at most {@code 2^29} states per side, at about 18 bytes per state.
+ */
+public final class WordSolver {
+
+    private static final int MAX_POINTS = 20; // 20! < Long.MAX_VALUE
+    private static final int MAX_FRONTIER = Integer.MAX_VALUE - 8;
+
+    private final int n;
+    private final int[][] forward; // image tables of the generators
+    private final int[][] backward; // image tables of the inverses
+    private final long[] factorial;
+    private final int root; // marks the start state of a search
+
+    private StateTable fromSource;
+    private StateTable fromTarget;
+    private long forwardStates;
+    private long backwardStates;
+
+    private WordSolver(int n, Permutation[] generators) {
+        this.n = n;
+        this.forward = new int[generators.length][];
+        this.backward = new int[generators.length][];
+        for (int g = 0; g < generators.length; g++) {
+            forward[g] = generators[g].image(n);
+            backward[g] = generators[g].invert().image(n);
+        }
+        this.factorial = new long[n + 1];
+        factorial[0] = 1;
+        for (int i = 1; i <= n; i++) {
+            factorial[i] = factorial[i - 1] * i;
+        }
+        this.root = generators.length + 1;
+    }
+
+    /**
+     * The result of a search.
+     *
+     * @param found {@code true} if the target is a product of the generators
+     * @param word the indexes of the generators in a shortest product, so that
+     * {@code product(generators[word[0]], generators[word[1]], ...)} is equal to the target;
+     * empty if the target is the identity or was not found
+     * @param forwardStates number of states that were reached from the identity
+     * @param backwardStates number of states that were reached from the target
+     */
+    public record Solution(boolean found, int[] word, long forwardStates, long backwardStates) {
+    }
+
+    /**
+     * Find a shortest product of generators that is equal to the target.
+     *
+     * @param target a permutation
+     * @param generators at most {@code 254} permutations
+     * @return a solution, including search statistics
+     * @throws java.lang.IllegalArgumentException if the generators and the target move more than {@code 20} points,
+     * or if there are too many generators
+     */
+    public static Solution solve(Permutation target, Permutation... generators) {
+        checkState(generators.length <= 254, "too many generators: %d", generators.length);
+        int n = 0;
+        for (Permutation p : generators) {
+            if (!p.isIdentity()) {
+                n = Math.max(n, p.maxMovedIndex() + 1);
+            }
+        }
+        if (target.isIdentity()) {
+            return new Solution(true, new int[0], 1, 1);
+        }
+        if (target.maxMovedIndex() >= n) {
+            return new Solution(false, new int[0], 0, 0);
+        }
+        checkState(n <= MAX_POINTS, "too many points: %d", n);
+        return new WordSolver(n, generators).search(target.image(n));
+    }
+
+    private Solution search(int[] target) {
+        fromSource = StateTable.create(factorial[n], root, 2);
+        fromTarget = StateTable.create(factorial[n], root, 2);
+        long source = rank(ArrayUtil.range(n));
+        long goal = rank(target);
+        fromSource.set(source, root);
+        fromTarget.set(goal, root);
+        long[] sourceFrontier = {source};
+        long[] targetFrontier = {goal};
+        forwardStates = 1;
+        backwardStates = 1;
+        while (sourceFrontier.length > 0 && targetFrontier.length > 0) {
+            boolean isForward = sourceFrontier.length <= targetFrontier.length;
+            Level level = isForward
+                    ? expand(sourceFrontier, forward, fromSource, fromTarget)
+                    : expand(targetFrontier, backward, fromTarget, fromSource);
+            if (isForward) {
+                forwardStates += level.frontier.length;
+                sourceFrontier = level.frontier;
+            } else {
+                backwardStates += level.frontier.length;
+                targetFrontier = level.frontier;
+            }
+            if (level.meeting >= 0) {
+                return new Solution(true, word(level.meeting), forwardStates, backwardStates);
+            }
+        }
+        return new Solution(false, new int[0], forwardStates, backwardStates);
+    }
+
+    /* the next frontier, and the best meeting state in it, or -1 */
+    private record Level(long[] frontier, long meeting) {
+    }
+
+    private Level expand(long[] frontier, int[][] generators, StateTable visited, StateTable other) {
+        long[] next = new long[Math.max(16, frontier.length)];
+        int size = 0;
+        long meeting = -1;
+        int bestLength = Integer.MAX_VALUE;
+        int[] image = new int[n];
+        int[] product = new int[n];
+        for (long state : frontier) {
+            unrank(state, image);
+            for (int g = 0; g < generators.length; g++) {
+                ArrayUtil.gather(image, generators[g], product, n);
+                long r = rank(product);
+                if (visited.get(r) != 0) {
+                    continue;
+                }
+                visited.set(r, g + 1);
+                if (size == next.length) {
+                    checkState(size < MAX_FRONTIER, "frontier is too large: %d", size);
+                    next = Arrays.copyOf(next, (int) Math.min(MAX_FRONTIER, 2L * size));
+                }
+                next[size++] = r;
+                if (other.get(r) != 0) {
+                    // all meetings in this level have the same distance from this side
+                    int length = pathLength(r, other, other == fromSource ? backward : forward);
+                    if (length < bestLength) {
+                        bestLength = length;
+                        meeting = r;
+                    }
+                }
+            }
+        }
+        return new Level(Arrays.copyOf(next, size), meeting);
+    }
+
+    /* number of steps back to the start state; a step back undoes a generator */
+    private int pathLength(long state, StateTable visited, int[][] undo) {
+        int[] image = new int[n];
+        int[] product = new int[n];
+        unrank(state, image);
+        int length = 0;
+        int code;
+        while ((code = visited.get(state)) != root) {
+            ArrayUtil.gather(image, undo[code - 1], product, n);
+            int[] swap = image;
+            image = product;
+            product = swap;
+            state = rank(image);
+            length++;
+        }
+        return length;
+    }
+
+    private int[] word(long meeting) {
+        int[] head = path(meeting, fromSource, backward); // reversed
+        int[] tail = path(meeting, fromTarget, forward);
+        int[] word = new int[head.length + tail.length];
+        for (int i = 0; i < head.length; i++) {
+            word[i] = head[head.length - 1 - i];
+        }
+        System.arraycopy(tail, 0, word, head.length, tail.length);
+        return word;
+    }
+
+    /* the generators along the way back to the start state */
+    private int[] path(long state, StateTable visited, int[][] undo) {
+        int[] result = new int[8];
+        int length = 0;
+        int[] image = new int[n];
+        int[] product = new int[n];
+        unrank(state, image);
+        int code;
+        while ((code = visited.get(state)) != root) {
+            if (length == result.length) {
+                result = Arrays.copyOf(result, 2 * length);
+            }
+            result[length++] = code - 1;
+            ArrayUtil.gather(image, undo[code - 1], product, n);
+            int[] swap = image;
+            image = product;
+            product = swap;
+            state = rank(image);
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    /* lexicographic rank of an image table, via its Lehmer code */
+    private long rank(int[] image) {
+        long result = 0;
+        for (int i = 0; i < n; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < n; j++) {
+                if (image[j] < image[i]) {
+                    smaller++;
+                }
+            }
+            result += smaller * factorial[n - 1 - i];
+        }
+        return result;
+    }
+
+    private void unrank(long rank, int[] image) {
+        int used = 0; // bitset of used values, n <= 20
+        for (int i = 0; i < n; i++) {
+            long f = factorial[n - 1 - i];
+            int smaller = (int) (rank / f);
+            rank %= f;
+            int v = -1;
+            while (smaller >= 0) {
+                v++;
+                if ((used & (1 << v)) == 0) {
+                    smaller--;
+                }
+            }
+            used |= 1 << v;
+            image[i] = v;
+        }
+    }
+}
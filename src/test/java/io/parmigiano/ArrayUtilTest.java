@@ -234,4 +234,17 @@ class ArrayUtilTest {
         assertArrayEquals(new int[]{7, 8, 9}, ArrayUtil.range(7, 10));
         assertArrayEquals(new int[]{}, ArrayUtil.range(7, 7));
     }
+
+    @Test
+    void testGather() {
+        for (int n = 0; n < 10; n++) {
+            for (int k = 0; k < 5; k++) {
+                Permutation p = Permutation.random(n);
+                Permutation q = Permutation.random(n);
+                int[] dst = new int[n];
+                ArrayUtil.gather(p.image(n), q.image(n), dst, n);
+                assertArrayEquals(p.compose(q).image(n), dst);
+            }
+        }
+    }
 }
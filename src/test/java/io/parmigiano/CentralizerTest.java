@@ -0,0 +1,80 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CentralizerTest {
+
+    @Test
+    void testSymmetricGroup() {
+        List<Permutation> s6 = Permutation.symmetricGroup(6);
+        for (Permutation p : List.of(
+                Permutation.identity(),
+                cycle(0, 1),
+                cycle(0, 1).compose(cycle(2, 3)),
+                cycle(0, 1, 2).compose(cycle(3, 4, 5)),
+                cycle(0, 1, 2, 3, 4, 5),
+                cycle(0, 3).compose(cycle(1, 4)).compose(cycle(2, 5)),
+                cycle(1, 3, 5).compose(cycle(0, 2)))) {
+            List<Permutation> generators = Permutation.centralizer(p, 6);
+            assertEquals(new HashSet<>(brute(p, s6)),
+                    new HashSet<>(Permutation.closure(generators.toArray(new Permutation[0]))));
+        }
+    }
+
+    @Test
+    void testSymmetricGroupOrder() {
+        // cycle type 3, 3, 2, 1, 1: order 3^2 * 2! * 2 * 2!
+        Permutation p = cycle(0, 1, 2).compose(cycle(3, 4, 5)).compose(cycle(6, 7));
+        List<Permutation> generators = Permutation.centralizer(p, 10);
+        assertEquals(72, Permutation.closure(generators.toArray(new Permutation[0])).size());
+        assertTrue(generators.size() <= 7);
+    }
+
+    @Test
+    void testSymmetricGroupInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Permutation.centralizer(cycle(0, 5), 5));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.centralizer(Permutation.identity(), -1));
+    }
+
+    @Test
+    void testGenerated() {
+        Permutation[] generators = {cycle(0, 1, 2, 3, 4), cycle(0, 1)};
+        List<Permutation> group = Permutation.closure(generators);
+        for (Permutation p : List.of(cycle(0, 1), cycle(0, 1, 2), cycle(0, 1, 2, 3, 4))) {
+            assertEquals(new HashSet<>(brute(p, group)), new HashSet<>(Permutation.centralizer(p, generators)));
+        }
+    }
+
+    @Test
+    void testCenter() {
+        assertEquals(List.of(Permutation.identity()), Permutation.center(cycle(0, 1, 2, 3), cycle(0, 1)));
+        // dihedral group of the square: rotation by a half turn is central
+        Permutation rotation = cycle(0, 1, 2, 3);
+        List<Permutation> center = Permutation.center(rotation, cycle(1, 3));
+        assertEquals(new HashSet<>(List.of(Permutation.identity(), rotation.pow(2))), new HashSet<>(center));
+        // an abelian group is its own center
+        Permutation[] abelian = {cycle(0, 1, 2), cycle(3, 4)};
+        assertEquals(6, Permutation.center(abelian).size());
+        List<Permutation> d4 = Permutation.closure(rotation, cycle(1, 3));
+        assertEquals(new HashSet<>(TestUtil.center(d4)), new HashSet<>(center));
+    }
+
+    private static List<Permutation> brute(Permutation p, List<Permutation> group) {
+        List<Permutation> result = new ArrayList<>();
+        for (Permutation x : group) {
+            if (x.compose(p).equals(p.compose(x))) {
+                result.add(x);
+            }
+        }
+        return result;
+    }
+}
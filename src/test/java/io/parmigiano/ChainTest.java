@@ -0,0 +1,60 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChainTest {
+
+    @Test
+    void testSameAsProduct() {
+        List<Permutation> s4 = Permutation.symmetricGroup(4);
+        int[] a = {10, 11, 12, 13, 14};
+        for (Permutation p : s4) {
+            for (Permutation q : s4) {
+                Permutation r = cycle(1, 4);
+                Permutation product = Permutation.product(p, q, r);
+                Chain chain = Permutation.chain(p, q).compose(r);
+                assertEquals(product, chain.toPermutation());
+                for (int i = 0; i < 6; i++) {
+                    assertEquals(product.apply(i), chain.apply(i));
+                }
+                // the first application is threaded, later ones use the image table
+                assertArrayEquals(product.apply(a), chain.apply(a));
+                assertArrayEquals(product.apply(a), chain.apply(a));
+                assertArrayEquals(product.apply(a), chain.apply(a));
+                for (int i = 0; i < 6; i++) {
+                    assertEquals(product.apply(i), chain.apply(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIdentity() {
+        assertEquals(Permutation.identity(), Permutation.chain().toPermutation());
+        assertEquals(Permutation.identity(), Permutation.chain(cycle(0, 1), cycle(0, 1)).toPermutation());
+        assertArrayEquals(new int[]{1, 2}, Permutation.chain().apply(new int[]{1, 2}));
+        assertEquals(7, Permutation.chain(Permutation.identity()).apply(7));
+    }
+
+    @Test
+    void testNegativeIndex() {
+        Chain chain = Permutation.chain(cycle(0, 1), cycle(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> chain.apply(-1));
+        chain.apply(new int[3]);
+        chain.apply(new int[3]); // the image table is cached now
+        assertThrows(IllegalArgumentException.class, () -> chain.apply(-1));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.chain().apply(-1));
+    }
+
+    @Test
+    void testTooShort() {
+        assertThrows(IllegalArgumentException.class, () -> Permutation.chain(cycle(0, 1), cycle(2, 3)).apply(new int[3]));
+    }
+}
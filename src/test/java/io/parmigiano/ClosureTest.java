@@ -0,0 +1,73 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClosureTest {
+
+    @Test
+    void testDihedral() {
+        assertEquals(8, Permutation.closure(cycle(0, 1, 2, 3), cycle(0, 2)).size());
+        assertEquals(10, Permutation.closure(cycle(0, 1, 2, 3, 4), cycle(0, 4).compose(1, 3)).size());
+        assertEquals(12, Permutation.closure(cycle(0, 1, 2, 3, 4, 5), cycle(0, 5).compose(1, 4).compose(2, 3)).size());
+    }
+
+    @Test
+    void testTrivial() {
+        assertEquals(List.of(Permutation.identity()), Permutation.closure());
+        assertEquals(List.of(Permutation.identity()), Permutation.closure(Permutation.identity()));
+        assertEquals(List.of(Permutation.identity(), cycle(3, 7)), Permutation.closure(cycle(3, 7)));
+    }
+
+    @Test
+    void testSymmetricGroup() {
+        List<Permutation> s5 = Permutation.closure(cycle(0, 1), cycle(0, 1, 2, 3, 4));
+        assertEquals(new HashSet<>(Permutation.symmetricGroup(5)), new HashSet<>(s5));
+        assertEquals(120, s5.size());
+        assertTrue(s5.get(0).isIdentity());
+        assertEquals(362880, Permutation.closure(cycle(0, 1), cycle(0, 1, 2, 3, 4, 5, 6, 7, 8)).size());
+    }
+
+    /* more than one word per element */
+    @Test
+    void testLargeDomain() {
+        int[] points = ArrayUtil.range(40);
+        Permutation rotation = cycle(points[0], points[1], Arrays.copyOfRange(points, 2, 40));
+        Permutation reflection = Permutation.identity();
+        for (int i = 1; i < 20; i++)
+            reflection = reflection.compose(i, 40 - i);
+        List<Permutation> group = Permutation.closure(rotation, reflection);
+        assertEquals(80, group.size());
+        assertEquals(80, new HashSet<>(group).size());
+        assertEquals(40, Permutation.closure(rotation).size());
+        assertTrue(TestUtil.isClosed(Permutation.closure(cycle(0, 1, 2), cycle(2, 3, 20))));
+    }
+
+    /* the elements are listed level by level */
+    @Test
+    void testBreadthFirstOrder() {
+        Permutation[] generators = {cycle(0, 1), cycle(0, 1, 2, 3, 4, 5)};
+        List<Permutation> group = Permutation.closure(generators);
+        assertEquals(720, group.size());
+        Map<Permutation, Integer> level = new HashMap<>();
+        level.put(Permutation.identity(), 0);
+        for (Permutation p : group) {
+            assertTrue(level.containsKey(p));
+            for (Permutation g : generators) {
+                level.putIfAbsent(p.compose(g), level.get(p) + 1);
+            }
+        }
+        for (int i = 1; i < group.size(); i++) {
+            assertTrue(level.get(group.get(i - 1)) <= level.get(group.get(i)));
+        }
+    }
+}
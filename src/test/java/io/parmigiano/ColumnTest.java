@@ -0,0 +1,81 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ColumnTest {
+
+    @Test
+    void testSortLong() {
+        for (int __ = 0; __ < 100; __++) {
+            long[] a = ThreadLocalRandom.current().longs(ThreadLocalRandom.current().nextInt(200), -50, 50).toArray();
+            long[] sorted = Arrays.copyOf(a, a.length);
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, Permutation.sorting(a).apply(a));
+        }
+    }
+
+    @Test
+    void testSortDouble() {
+        double[] a = {2.5, Double.NaN, 0.0, -0.0, Double.NEGATIVE_INFINITY, 1.0, Double.NaN, -3.0};
+        double[] sorted = Arrays.copyOf(a, a.length);
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, Permutation.sorting(a).apply(a));
+    }
+
+    @Test
+    void testSortFloat() {
+        float[] a = {2.5f, Float.NaN, 0.0f, -0.0f, Float.POSITIVE_INFINITY, 1.0f, -3.0f};
+        float[] sorted = Arrays.copyOf(a, a.length);
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, Permutation.sorting(a).apply(a));
+    }
+
+    /* ties keep their relative order */
+    @Test
+    void testStable() {
+        long[] a = {3, 1, 3, 1, 3, 0};
+        assertArrayEquals(new int[]{3, 1, 4, 2, 5, 0}, Rankings.sorting(a));
+        double[] b = {3, 1, 3, 1, 3, 0};
+        assertArrayEquals(new int[]{3, 1, 4, 2, 5, 0}, Rankings.sorting(b));
+    }
+
+    @Test
+    void testMultiColumn() {
+        for (int __ = 0; __ < 100; __++) {
+            int n = ThreadLocalRandom.current().nextInt(300);
+            int[] c0 = TestUtil.randomNumbers(3, n);
+            long[] c1 = ThreadLocalRandom.current().longs(n, 0, 4).toArray();
+            double[] c2 = ThreadLocalRandom.current().doubles(n).toArray();
+            Permutation p = Permutation.sorting(
+                    Column.ascending(c0), Column.descending(c1), Column.ascending(c2));
+            List<Integer> rows = Arrays.stream(ArrayUtil.range(n)).boxed().toList();
+            List<Integer> expected = rows.stream().sorted(Comparator.<Integer>comparingInt(i -> c0[i])
+                    .thenComparing(i -> c1[i], Comparator.reverseOrder())
+                    .thenComparingDouble(i -> c2[i])).toList();
+            assertEquals(expected, p.apply(rows));
+        }
+    }
+
+    @Test
+    void testMultiColumnStable() {
+        int[] c0 = {1, 0, 1, 0};
+        float[] c1 = {5, 5, 5, 5};
+        assertArrayEquals(new int[]{2, 0, 3, 1}, Rankings.sorting(Column.ascending(c0), Column.descending(c1)));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Permutation.sorting(new Column[0]));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.sorting(
+                Column.ascending(new int[2]), Column.ascending(new long[3])));
+    }
+}
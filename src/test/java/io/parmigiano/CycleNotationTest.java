@@ -0,0 +1,64 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CycleNotationTest {
+
+    @Test
+    void testParse() {
+        assertEquals(cycle(0, 1, 2).compose(3, 4), Permutation.parse("(0 1 2) (3 4)"));
+        assertEquals(cycle(0, 1, 2).compose(3, 4), Permutation.parse("  (0 1 2)(3\t4) "));
+        assertEquals(cycle(10, 123), Permutation.parse("(10 123) (7)"));
+        assertTrue(Permutation.parse("id").isIdentity());
+        assertTrue(Permutation.parse(" id ").isIdentity());
+        assertTrue(Permutation.parse("(5)").isIdentity());
+    }
+
+    @Test
+    void testParseInvalid() {
+        for (String s : List.of("", " ", "(", "()", "(0 1", "(0 1) x", "(0,1)", "(0 -1)", "(0 1 0)",
+                "id (0 1)", "(0 1)(1 2)", "(0 2147483648)",
+                "(0 1)(1)", "(5)(5)", "(5) (5 6)")) {
+            assertThrows(IllegalArgumentException.class, () -> Permutation.parse(s), s);
+        }
+    }
+
+    @Test
+    void testRoundTrip() {
+        for (Permutation p : Permutation.symmetricGroup(5)) {
+            assertEquals(p, Permutation.parse(p.toString()));
+        }
+        for (int __ = 0; __ < 100; __++) {
+            Permutation p = Permutation.random(200);
+            assertEquals(p, Permutation.parse(p.toString()));
+        }
+    }
+
+    @Test
+    void testAppendTo() throws IOException {
+        StringWriter writer = new StringWriter();
+        cycle(0, 1, 12).appendTo(writer).append('\n');
+        Permutation.identity().appendTo(writer).append('\n');
+        cycle(3, 4).compose(100, 5).appendTo(writer);
+        assertEquals("(0 1 12)\nid\n(3 4) (5 100)", writer.toString());
+        assertEquals("x(0 1)", cycle(0, 1).appendTo(new StringBuilder("x")).toString());
+    }
+
+    @Test
+    void testLines() {
+        BufferedReader reader = new BufferedReader(new StringReader("(0 1 2) (3 4)\n\nid\n(7 8)\n"));
+        assertEquals(List.of(cycle(0, 1, 2).compose(3, 4), Permutation.identity(), cycle(7, 8)),
+                Permutation.lines(reader).toList());
+    }
+}
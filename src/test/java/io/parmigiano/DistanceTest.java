@@ -0,0 +1,95 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DistanceTest {
+
+    @Test
+    void testExamples() {
+        Permutation p = cycle(0, 1, 2);
+        assertEquals(0, Distance.KENDALL_TAU.between(p, p));
+        assertEquals(1, Distance.KENDALL_TAU.between(Permutation.identity(), cycle(3, 4)));
+        assertEquals(2, Distance.KENDALL_TAU.between(Permutation.identity(), p));
+        assertEquals(2, Distance.CAYLEY.between(Permutation.identity(), p));
+        assertEquals(1, Distance.CAYLEY.between(cycle(0, 1), p));
+        assertEquals(1, Distance.ULAM.between(Permutation.identity(), p));
+        assertEquals(4, Distance.SPEARMAN_FOOTRULE.between(Permutation.identity(), p));
+        assertEquals(6, Distance.SPEARMAN_RHO.between(Permutation.identity(), p));
+    }
+
+    /* compare with quadratic definitions */
+    @Test
+    void testRandom() {
+        for (int __ = 0; __ < 100; __++) {
+            int n = 1 + ThreadLocalRandom.current().nextInt(40);
+            Permutation p = Permutation.random(n);
+            Permutation q = Permutation.random(n);
+            int[] a = IntStream.range(0, n).map(p::apply).toArray();
+            int[] b = IntStream.range(0, n).map(q::apply).toArray();
+            long inversions = 0;
+            long footrule = 0;
+            long rho = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++)
+                    if ((a[i] < a[j]) != (b[i] < b[j]))
+                        inversions++;
+                footrule += Math.abs(a[i] - b[i]);
+                rho += (long) (a[i] - b[i]) * (a[i] - b[i]);
+            }
+            assertEquals(inversions, Distance.KENDALL_TAU.between(p, q));
+            assertEquals(footrule, Distance.SPEARMAN_FOOTRULE.between(p, q));
+            assertEquals(rho, Distance.SPEARMAN_RHO.between(p, q));
+            Permutation relative = q.compose(p.invert());
+            assertEquals(transpositions(relative), Distance.CAYLEY.between(p, q));
+            assertEquals(Distance.KENDALL_TAU.between(p, q), Distance.KENDALL_TAU.between(q, p));
+            assertEquals(Distance.ULAM.between(p, q), Distance.ULAM.between(q, p));
+            assertEquals(Distance.CAYLEY.between(p, q), Distance.CAYLEY.between(q, p));
+        }
+    }
+
+    /* the only permutations of 4 elements at Ulam distance 1 from identity are the moves of a single element */
+    @Test
+    void testUlam() {
+        long count = Permutation.symmetricGroup(4).stream()
+                .filter(p -> Distance.ULAM.between(Permutation.identity(), p) == 1)
+                .count();
+        assertEquals(9, count);
+    }
+
+    @Test
+    void testFromReference() {
+        Permutation reference = Permutation.random(30);
+        List<Permutation> candidates = IntStream.range(0, 200)
+                .mapToObj(i -> Permutation.random(ThreadLocalRandom.current().nextInt(50)))
+                .toList();
+        for (Distance distance : Distance.values()) {
+            long[] expected = candidates.stream().mapToLong(c -> distance.between(reference, c)).toArray();
+            assertArrayEquals(expected, distance.fromReference(reference, candidates));
+        }
+    }
+
+    private static int transpositions(Permutation p) {
+        int result = 0;
+        for (int n = 0; n <= p.maxMovedIndex(); n++) {
+            int length = 1;
+            int i = p.apply(n);
+            boolean smallest = true;
+            while (i != n) {
+                smallest &= i > n;
+                i = p.apply(i);
+                length++;
+            }
+            if (smallest)
+                result += length - 1;
+        }
+        return result;
+    }
+}
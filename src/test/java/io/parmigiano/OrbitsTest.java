@@ -0,0 +1,85 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrbitsTest {
+
+    @Test
+    void testOrbits() {
+        assertArrayEquals(new int[0][], Permutation.orbits());
+        assertArrayEquals(new int[0][], Permutation.orbits(Permutation.identity()));
+        assertArrayEquals(new int[][]{{0, 1, 2}}, Permutation.orbits(cycle(2, 0, 1)));
+        assertArrayEquals(new int[][]{{0, 1, 3}, {2, 5}}, Permutation.orbits(cycle(0, 1), cycle(5, 2), cycle(1, 3)));
+        assertArrayEquals(new int[][]{{0, 1, 2, 3, 4}}, Permutation.orbits(cycle(0, 1), cycle(1, 2, 3), cycle(4, 0)));
+    }
+
+    /* dihedral group of the square acting on vertices 0 1 2 3: two orbits on pairs (edges and diagonals) */
+    @Test
+    void testPairs() {
+        int[][][] orbits = Permutation.orbitsOnSubsets(4, 2, cycle(0, 1, 2, 3), cycle(0, 2));
+        assertEquals(2, orbits.length);
+        assertArrayEquals(new int[][]{{0, 1}, {0, 3}, {1, 2}, {2, 3}}, orbits[0]);
+        assertArrayEquals(new int[][]{{0, 2}, {1, 3}}, orbits[1]);
+    }
+
+    @Test
+    void testSubsetsFixed() {
+        int[][][] orbits = Permutation.orbitsOnSubsets(4, 2, cycle(0, 1));
+        assertEquals(4, orbits.length);
+        assertArrayEquals(new int[][]{{0, 1}}, orbits[0]);
+        assertArrayEquals(new int[][]{{0, 2}, {1, 2}}, orbits[1]);
+        assertEquals(1, Permutation.orbitsOnSubsets(3, 0).length);
+        assertThrows(IllegalArgumentException.class, () -> Permutation.orbitsOnSubsets(3, 2, cycle(1, 3)));
+    }
+
+    /* compare with orbits obtained by enumerating the group */
+    @Test
+    void testSubsetsBruteForce() {
+        Permutation p = cycle(0, 1, 2, 3, 4, 5);
+        Permutation q = cycle(0, 5).compose(1, 4).compose(2, 3);
+        Set<Permutation> group = span(p, q);
+        assertEquals(12, group.size());
+        for (int k = 0; k <= 6; k++) {
+            int[][][] orbits = Permutation.orbitsOnSubsets(6, k, p, q);
+            int total = 0;
+            for (int[][] orbit : orbits) {
+                total += orbit.length;
+                Set<String> expected = new HashSet<>();
+                for (Permutation g : group) {
+                    int[] image = Arrays.stream(orbit[0]).map(g::apply).sorted().toArray();
+                    expected.add(Arrays.toString(image));
+                }
+                Set<String> actual = new HashSet<>();
+                for (int[] subset : orbit)
+                    actual.add(Arrays.toString(subset));
+                assertEquals(expected, actual);
+            }
+            assertEquals(Selections.combinations(6, k).count(), total);
+        }
+    }
+
+    private static Set<Permutation> span(Permutation... generators) {
+        Set<Permutation> result = new HashSet<>(List.of(Permutation.identity()));
+        List<Permutation> frontier = new ArrayList<>(result);
+        while (!frontier.isEmpty()) {
+            List<Permutation> next = new ArrayList<>();
+            for (Permutation a : frontier)
+                for (Permutation g : generators)
+                    if (result.add(a.compose(g)))
+                        next.add(a.compose(g));
+            frontier = next;
+        }
+        return result;
+    }
+}
@@ -3,11 +3,17 @@ package io.parmigiano;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static io.parmigiano.MyInt.box;
 import static io.parmigiano.Permutation.cycle;
@@ -16,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -410,5 +418,215 @@ class PermutationTest {
         assertEquals("(4 1) (3 2)", cycle(2, 3).compose(cycle(1, 4)).normalize().toString());
         assertEquals("(4 1) (3 2)", cycle(1, 4).compose(cycle(2, 3)).normalize().toString());
     }
-}
 
+    @Test
+    void testToProduct() {
+        assertTrue(Stream.<Permutation>empty().collect(Permutation.toProduct()).isIdentity());
+        Permutation p = Permutation.cycle(0, 1, 2);
+        Permutation q = Permutation.cycle(2, 5).compose(1, 3);
+        assertEquals(Permutation.product(p, q), Stream.of(p, q).collect(Permutation.toProduct()));
+        assertEquals(Permutation.product(q, p), Stream.of(q, p).collect(Permutation.toProduct()));
+        assertTrue(Stream.of(p, p, p).collect(Permutation.toProduct()).isIdentity());
+    }
+
+    /* check that the parallel collector preserves encounter order */
+    @Test
+    void testToProductParallel() {
+        List<Permutation> factors = IntStream.range(0, 1000)
+                .mapToObj(i -> Permutation.random(1 + ThreadLocalRandom.current().nextInt(50)))
+                .toList();
+        Permutation expected = Permutation.product(factors.toArray(new Permutation[0]));
+        assertEquals(expected, factors.stream().collect(Permutation.toProduct()));
+        assertEquals(expected, factors.parallelStream().collect(Permutation.toProduct()));
+    }
+
+    @Test
+    void testIntern() {
+        Permutation p = Permutation.cycle(0, 1, 2).intern();
+        assertSame(p, Permutation.cycle(1, 2, 0).intern());
+        assertSame(p, Permutation.cycle(0, 1).compose(1, 2).intern());
+        assertSame(p, p.intern());
+        assertNotSame(p, Permutation.cycle(0, 2, 1).intern());
+        assertSame(Permutation.identity(), Permutation.cycle(0, 1).compose(0, 1).intern());
+    }
+
+    @Test
+    void testInternDistinct() {
+        for (Permutation p : symmetricGroup(4)) {
+            for (Permutation q : symmetricGroup(4)) {
+                assertEquals(p.equals(q), p.intern() == q.intern());
+            }
+        }
+    }
+
+    @Test
+    void testCycleQueries() {
+        Permutation p = cycle(2, 5, 7).compose(cycle(0, 3));
+        assertArrayEquals(new int[]{0, 2, 3, 5, 7}, p.support());
+        assertArrayEquals(new int[]{5, 7, 2}, p.cycleOf(5));
+        assertArrayEquals(new int[]{3, 0}, p.cycleOf(3));
+        assertArrayEquals(new int[]{4}, p.cycleOf(4));
+        assertArrayEquals(new int[]{100}, p.cycleOf(100));
+        assertEquals(3, p.cycleLength(7));
+        assertEquals(1, p.cycleLength(6));
+        assertTrue(p.isFixed(1));
+        assertFalse(p.isFixed(0));
+        assertTrue(p.isFixed(8));
+        assertArrayEquals(new int[0], Permutation.identity().support());
+        assertTrue(Permutation.identity().isFixed(0));
+        assertThrows(IllegalArgumentException.class, () -> p.isFixed(-1));
+    }
+
+    @Test
+    void testCycleQueriesAgreeWithApply() {
+        for (Permutation p : symmetricGroup(5)) {
+            int moved = 0;
+            for (int i = 0; i < 6; i++) {
+                assertEquals(p.apply(i) == i, p.isFixed(i));
+                int[] cycle = p.cycleOf(i);
+                assertEquals(cycle.length, p.cycleLength(i));
+                for (int j = 0; j < cycle.length; j++) {
+                    assertEquals(cycle[(j + 1) % cycle.length], p.apply(cycle[j]));
+                }
+                if (!p.isFixed(i)) {
+                    moved++;
+                }
+            }
+            assertEquals(moved, p.support().length);
+        }
+    }
+
+    @Test
+    void testInvertCached() {
+        Permutation p = cycle(0, 3, 1).compose(cycle(2, 4));
+        Permutation inverse = p.invert();
+        assertSame(inverse, p.invert());
+        assertSame(p, inverse.invert());
+        assertTrue(p.compose(inverse).isIdentity());
+        assertSame(Permutation.identity(), Permutation.identity().invert());
+    }
+
+    @Test
+    void testApplyInverse() {
+        int[] a = {10, 11, 12, 13, 14, 15};
+        for (Permutation p : symmetricGroup(5)) {
+            assertArrayEquals(a, p.applyInverse(p.apply(a)));
+            assertArrayEquals(p.invert().apply(a), p.applyInverse(a));
+            for (int i = 0; i < 7; i++) {
+                assertEquals(i, p.applyInverse(p.apply(i)));
+                assertEquals(p.invert().apply(i), p.applyInverse(i));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 5).applyInverse(new int[3]));
+    }
+
+    @Test
+    void testView() {
+        List<String> input = new ArrayList<>(List.of("a", "b", "c", "d", "e", "f"));
+        for (Permutation p : symmetricGroup(5)) {
+            List<String> view = p.view(input);
+            assertEquals(p.apply(input), view);
+            assertEquals(p.apply(input), new ArrayList<>(view));
+            assertArrayEquals(p.apply(input).toArray(), view.toArray());
+            assertTrue(view instanceof RandomAccess);
+            assertEquals(p.apply(new LinkedList<>(input)), p.view(new LinkedList<>(input)));
+        }
+        assertFalse(cycle(0, 1).view(new LinkedList<>(input)) instanceof RandomAccess);
+        List<String> view = cycle(0, 1).view(input);
+        input.set(0, "z");
+        assertEquals("z", view.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> view.set(0, "y"));
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 6).view(input));
+    }
+
+    @Test
+    void testApplyInPlaceBuffers() {
+        int[] a = {10, 11, 12, 13, 14, 15, 16};
+        for (Permutation p : symmetricGroup(5)) {
+            int[] expected = p.apply(Arrays.copyOfRange(a, 1, a.length));
+            IntBuffer ints = IntBuffer.wrap(a.clone());
+            ints.position(1);
+            assertSame(ints, p.applyInPlace(ints));
+            assertEquals(1, ints.position());
+            assertArrayEquals(expected, Arrays.copyOfRange(ints.array(), 1, a.length));
+            assertEquals(10, ints.get(0));
+
+            LongBuffer longs = ByteBuffer.allocateDirect(8 * 6).asLongBuffer();
+            for (int i = 0; i < 6; i++) {
+                longs.put(i, a[i + 1]);
+            }
+            p.applyInPlace(longs);
+            for (int i = 0; i < 6; i++) {
+                assertEquals(expected[i], longs.get(i));
+            }
+
+            ByteBuffer records = ByteBuffer.allocateDirect(3 * 6);
+            for (int i = 0; i < 6; i++) {
+                records.put(3 * i, (byte) a[i + 1]).put(3 * i + 1, (byte) -a[i + 1]).put(3 * i + 2, (byte) i);
+            }
+            p.applyInPlace(records, 3);
+            for (int i = 0; i < 6; i++) {
+                assertEquals(expected[i], records.get(3 * i));
+                assertEquals(-expected[i], records.get(3 * i + 1));
+                assertEquals(expected[i] - 11, records.get(3 * i + 2));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 3).applyInPlace(IntBuffer.allocate(3)));
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 3).applyInPlace(ByteBuffer.allocate(11), 3));
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 1).applyInPlace(ByteBuffer.allocate(4), 0));
+    }
+
+    @Test
+    void testApplyInPlace() {
+        int[] a = {10, 11, 12, 13, 14, 15};
+        for (Permutation p : symmetricGroup(5)) {
+            int[] copy = a.clone();
+            assertSame(copy, p.applyInPlace(copy));
+            assertArrayEquals(p.apply(a), copy);
+            assertArrayEquals(p.apply(a), p.parallelApplyInPlace(a.clone()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 5).applyInPlace(new int[5]));
+    }
+
+    @Test
+    void testParallelApplyInPlace() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int n = 200_000;
+        int[] a = IntStream.range(0, n).map(i -> random.nextInt()).toArray();
+        // one long cycle, many short cycles, and a mix
+        for (Permutation p : List.of(
+                Permutation.randomCycle(n, random),
+                Permutation.randomInvolution(n, random),
+                Permutation.randomDerangement(n, random),
+                Permutation.randomOfCycleType(new int[]{100_000, 30_000, 5, 5, 3}, random))) {
+            assertArrayEquals(p.apply(a), p.parallelApplyInPlace(a.clone()));
+        }
+    }
+
+    @Test
+    void testImage() {
+        for (Permutation p : symmetricGroup(5)) {
+            int[] image = p.toImage(new int[7]);
+            for (int i = 0; i < 7; i++) {
+                assertEquals(p.apply(i), image[i]);
+            }
+            assertEquals(p, Permutation.fromImage(image));
+            assertEquals(p, Permutation.fromImageUnchecked(image));
+            assertEquals(p.maxMovedIndex(), Permutation.fromImage(image).maxMovedIndex());
+        }
+        assertSame(Permutation.identity(), Permutation.fromImage(new int[]{0, 1, 2}));
+        assertSame(Permutation.identity(), Permutation.fromImage(new int[0]));
+        assertArrayEquals(new int[]{0, 1}, Permutation.identity().toImage(new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 4).toImage(new int[4]));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.fromImage(new int[]{1, 1, 0}));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.fromImage(new int[]{1, 3, 0}));
+    }
+
+    @Test
+    void testLargeImage() {
+        int n = 1_000_000;
+        Permutation p = Permutation.random(n);
+        int[] image = p.toImage(new int[n]);
+        assertArrayEquals(image, Permutation.fromImage(image).toImage(new int[n]));
+    }
+}
@@ -0,0 +1,89 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankerTest {
+
+    @Test
+    void testAppend() {
+        Ranker ranker = new Ranker();
+        int[] a = {5, 1, 3, 1, 0};
+        for (int key : a) {
+            ranker.append(key);
+        }
+        assertEquals(5, ranker.size());
+        assertEquals(4, ranker.rankOf(0));
+        assertEquals(1, ranker.rankOf(1));
+        assertEquals(2, ranker.rankOf(3));
+        assertEquals(4, ranker.select(0));
+        assertEquals(0, ranker.select(4));
+        assertArrayEquals(a, ranker.keys());
+        assertArrayEquals(new int[]{0, 1, 1, 3, 5}, ranker.toPermutation().apply(a));
+    }
+
+    /* compare with a sorted list of live indexes */
+    @Test
+    void testRandomOperations() {
+        Random random = ThreadLocalRandom.current();
+        Ranker ranker = new Ranker();
+        List<Integer> keys = new ArrayList<>();
+        List<Integer> live = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(4);
+            if (op <= 1 || live.isEmpty()) {
+                int key = random.nextInt(20) - 10;
+                assertEquals(keys.size(), ranker.append(key));
+                live.add(keys.size());
+                keys.add(key);
+            } else if (op == 2) {
+                Integer i = live.remove(random.nextInt(live.size()));
+                ranker.remove(i);
+                assertFalse(ranker.contains(i));
+            } else {
+                int i = live.get(random.nextInt(live.size()));
+                int key = random.nextInt(20) - 10;
+                ranker.set(i, key);
+                keys.set(i, key);
+            }
+            List<Integer> sorted = new ArrayList<>(live);
+            sorted.sort(Comparator.<Integer>comparingInt(keys::get).thenComparingInt(i -> i));
+            assertEquals(live.size(), ranker.size());
+            for (int r = 0; r < sorted.size(); r++) {
+                assertEquals((int) sorted.get(r), ranker.select(r));
+                assertEquals(r, ranker.rankOf(sorted.get(r)));
+                assertEquals((int) keys.get(sorted.get(r)), ranker.key(sorted.get(r)));
+            }
+        }
+        int[] current = ranker.keys();
+        assertArrayEquals(live.stream().mapToInt(keys::get).toArray(), current);
+        int[] expected = Arrays.copyOf(current, current.length);
+        Arrays.sort(expected);
+        assertArrayEquals(expected, ranker.toPermutation().apply(current));
+    }
+
+    @Test
+    void testInvalid() {
+        Ranker ranker = new Ranker();
+        assertThrows(IllegalArgumentException.class, () -> ranker.select(0));
+        assertTrue(ranker.toPermutation().isIdentity());
+        int i = ranker.append(7);
+        ranker.remove(i);
+        assertThrows(IllegalArgumentException.class, () -> ranker.remove(i));
+        assertThrows(IllegalArgumentException.class, () -> ranker.rankOf(i));
+        assertThrows(IllegalArgumentException.class, () -> ranker.key(5));
+        assertEquals(0, ranker.size());
+    }
+}
@@ -0,0 +1,159 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReorderingTest {
+
+    /* a path 0 - 1 - ... - (n - 1) with shuffled labels, so its bandwidth is large */
+    @Test
+    void testPath() {
+        int n = 200;
+        Permutation shuffle = Permutation.random(n);
+        double[][] dense = new double[n][n];
+        for (int i = 0; i + 1 < n; i++) {
+            int a = shuffle.apply(i);
+            int b = shuffle.apply(i + 1);
+            dense[a][b] = 1;
+            dense[b][a] = 1;
+        }
+        CsrMatrix m = csr(dense);
+        Permutation rcm = Permutation.reverseCuthillMcKee(m.rowPtr(), m.colIdx());
+        CsrMatrix reordered = rcm.applySymmetric(m.rowPtr(), m.colIdx(), m.values());
+        assertEquals(1, bandwidth(reordered));
+    }
+
+    @Test
+    void testGrid() {
+        // 10 x 10 grid, numbered column by column, then shuffled
+        int w = 10;
+        int n = w * w;
+        Permutation shuffle = Permutation.random(n);
+        double[][] dense = new double[n][n];
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < w; y++) {
+                int u = shuffle.apply(x * w + y);
+                dense[u][u] = 4;
+                if (x + 1 < w) {
+                    int v = shuffle.apply((x + 1) * w + y);
+                    dense[u][v] = dense[v][u] = -1;
+                }
+                if (y + 1 < w) {
+                    int v = shuffle.apply(x * w + y + 1);
+                    dense[u][v] = dense[v][u] = -1;
+                }
+            }
+        }
+        CsrMatrix m = csr(dense);
+        Permutation rcm = Permutation.reverseCuthillMcKee(m.rowPtr(), m.colIdx());
+        assertTrue(bandwidth(rcm.applySymmetric(m.rowPtr(), m.colIdx(), m.values())) <= w + 1);
+    }
+
+    @Test
+    void testComponents() {
+        // two triangles and an isolated vertex
+        double[][] dense = new double[7][7];
+        int[][] edges = {{0, 3}, {3, 5}, {5, 0}, {1, 2}, {2, 6}, {6, 1}};
+        for (int[] e : edges) {
+            dense[e[0]][e[1]] = dense[e[1]][e[0]] = 1;
+        }
+        CsrMatrix m = csr(dense);
+        Permutation rcm = Permutation.reverseCuthillMcKee(m.rowPtr(), m.colIdx());
+        assertEquals(2, bandwidth(rcm.applySymmetric(m.rowPtr(), m.colIdx(), null)));
+    }
+
+    /* one component per vertex; the search must not allocate per component */
+    @Test
+    void testDiagonal() {
+        int n = 200_000;
+        int[] rowPtr = IntStream.rangeClosed(0, n).toArray();
+        int[] colIdx = IntStream.range(0, n).toArray();
+        Permutation rcm = Permutation.reverseCuthillMcKee(rowPtr, colIdx);
+        CsrMatrix reordered = rcm.applySymmetric(rowPtr, colIdx, null);
+        assertEquals(0, bandwidth(reordered));
+        assertArrayEquals(rowPtr, reordered.rowPtr());
+    }
+
+    @Test
+    void testApplySymmetric() {
+        Random random = new Random(5);
+        int n = 30;
+        double[][] dense = new double[n][n];
+        for (int k = 0; k < 120; k++) {
+            dense[random.nextInt(n)][random.nextInt(n)] = 1 + random.nextInt(100);
+        }
+        CsrMatrix m = csr(dense);
+        Permutation p = Permutation.random(n);
+        CsrMatrix result = p.applySymmetric(m.rowPtr(), m.colIdx(), m.values());
+        double[][] expected = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                expected[p.apply(i)][p.apply(j)] = dense[i][j];
+            }
+        }
+        CsrMatrix e = csr(expected);
+        assertArrayEquals(e.rowPtr(), result.rowPtr());
+        assertArrayEquals(e.colIdx(), result.colIdx());
+        assertArrayEquals(e.values(), result.values());
+        CsrMatrix pattern = p.applySymmetric(m.rowPtr(), m.colIdx(), null);
+        assertArrayEquals(e.colIdx(), pattern.colIdx());
+        assertNull(pattern.values());
+    }
+
+    @Test
+    void testDegreeOrdering() {
+        // star with center 2, and an edge 0 - 1 - 2
+        int[] rowPtr = {0, 1, 3, 7, 8, 9};
+        int[] colIdx = {1, 0, 2, 1, 3, 4, 2, 2, 2};
+        Permutation p = Permutation.degreeOrdering(rowPtr, colIdx);
+        // degrees 1, 2, 3, 1, 1: order 0, 3, 4, 1, 2
+        assertArrayEquals(new int[]{0, 3, 4, 1, 2}, p.toImage(new int[5]));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Permutation.degreeOrdering(new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.degreeOrdering(new int[]{0, 2, 1}, new int[]{0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.reverseCuthillMcKee(new int[]{0, 1}, new int[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> cycle(0, 2).applySymmetric(new int[]{0, 1, 2}, new int[]{1, 0}, null));
+        assertEquals(Permutation.identity(), Permutation.reverseCuthillMcKee(new int[]{0}, new int[0]));
+    }
+
+    private static int bandwidth(CsrMatrix m) {
+        int result = 0;
+        for (int i = 0; i + 1 < m.rowPtr().length; i++) {
+            for (int e = m.rowPtr()[i]; e < m.rowPtr()[i + 1]; e++) {
+                result = Math.max(result, Math.abs(i - m.colIdx()[e]));
+            }
+        }
+        return result;
+    }
+
+    private static CsrMatrix csr(double[][] dense) {
+        int n = dense.length;
+        int[] rowPtr = new int[n + 1];
+        List<Integer> cols = new ArrayList<>();
+        List<Double> vals = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (dense[i][j] != 0) {
+                    cols.add(j);
+                    vals.add(dense[i][j]);
+                }
+            }
+            rowPtr[i + 1] = cols.size();
+        }
+        return new CsrMatrix(rowPtr, cols.stream().mapToInt(x -> x).toArray(), vals.stream().mapToDouble(x -> x).toArray());
+    }
+}
@@ -0,0 +1,98 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamplingTest {
+
+    @Test
+    void testDerangement() {
+        Random random = new Random(1);
+        for (int n = 0; n < 50; n++) {
+            if (n == 1)
+                continue;
+            Permutation p = Permutation.randomDerangement(n, random);
+            for (int i = 0; i < n; i++)
+                assertTrue(p.apply(i) != i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Permutation.randomDerangement(1, random));
+        assertUniform(9, () -> Permutation.randomDerangement(4, random));
+        assertUniform(44, () -> Permutation.randomDerangement(5, random));
+    }
+
+    @Test
+    void testCycle() {
+        Random random = new Random(2);
+        for (int n = 2; n < 50; n++) {
+            Permutation p = Permutation.randomCycle(n, random);
+            assertEquals(1, p.numCycles());
+            assertEquals(n, p.order());
+        }
+        assertTrue(Permutation.randomCycle(1, random).isIdentity());
+        assertUniform(24, () -> Permutation.randomCycle(5, random));
+    }
+
+    @Test
+    void testInvolution() {
+        Random random = new Random(3);
+        for (int n = 0; n < 50; n++) {
+            Permutation p = Permutation.randomInvolution(n, random);
+            assertTrue(p.compose(p).isIdentity());
+            assertTrue(p.maxMovedIndex() < Math.max(1, n));
+        }
+        assertUniform(10, () -> Permutation.randomInvolution(4, random));
+        assertUniform(26, () -> Permutation.randomInvolution(5, random));
+    }
+
+    @Test
+    void testCycleType() {
+        Random random = new Random(4);
+        Permutation p = Permutation.randomOfCycleType(new int[]{3, 1, 2, 2}, random);
+        assertEquals(3, p.numCycles());
+        assertEquals(6, p.order());
+        assertUniform(15, () -> Permutation.randomOfCycleType(new int[]{2, 2, 2}, random));
+        assertUniform(40, () -> Permutation.randomOfCycleType(new int[]{3, 1, 1, 1}, random));
+        assertThrows(IllegalArgumentException.class, () -> Permutation.randomOfCycleType(new int[]{2, 0}, random));
+    }
+
+    /* check that all outcomes occur, with roughly equal frequency */
+    private static void assertUniform(int outcomes, Supplier<Permutation> sampler) {
+        int samples = 2000 * outcomes;
+        Map<Permutation, Integer> counts = new HashMap<>();
+        for (int i = 0; i < samples; i++)
+            counts.merge(sampler.get(), 1, Integer::sum);
+        assertEquals(outcomes, counts.size());
+        for (int count : counts.values())
+            assertTrue(Math.abs(count - 2000) < 250, () -> "count: " + count);
+    }
+
+    /* the samplers skip validation, so check that the largest moved index is still right */
+    @Test
+    void testMaxMovedIndex() {
+        Random random = new Random(6);
+        for (int i = 0; i < 200; i++) {
+            for (Permutation p : new Permutation[]{
+                    Permutation.randomCycle(7, random),
+                    Permutation.randomDerangement(7, random),
+                    Permutation.randomInvolution(7, random),
+                    Permutation.randomOfCycleType(new int[]{3, 1, 2, 1}, random)}) {
+                int max = 0;
+                for (int j = 0; j < 7; j++) {
+                    if (p.apply(j) != j) {
+                        max = j;
+                    }
+                }
+                assertEquals(max, p.maxMovedIndex());
+                assertEquals(p, Permutation.fromImage(p.toImage(new int[7])));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SelectionsTest {
+
+    @Test
+    void testCount() {
+        assertEquals(60, Selections.permutations(5, 3).count());
+        assertEquals(10, Selections.combinations(5, 3).count());
+        assertEquals(1, Selections.combinations(0, 0).count());
+        assertEquals(TestUtil.factorial(20), Selections.permutations(20, 20).count());
+        assertEquals(7219428434016265740L, Selections.combinations(66, 33).count());
+        assertThrows(ArithmeticException.class, () -> Selections.combinations(68, 34));
+        assertThrows(IllegalArgumentException.class, () -> Selections.permutations(3, 4));
+    }
+
+    @Test
+    void testPermutationsLexicographic() {
+        for (int n = 0; n <= 6; n++) {
+            for (int k = 0; k <= n; k++) {
+                Selections selections = Selections.permutations(n, k);
+                List<int[]> all = selections.stream().toList();
+                assertEquals(selections.count(), all.size());
+                for (int r = 0; r < all.size(); r++) {
+                    int[] a = all.get(r);
+                    assertEquals(k, Arrays.stream(a).distinct().count());
+                    if (r > 0)
+                        assertTrue(Arrays.compare(all.get(r - 1), a) < 0);
+                    assertEquals(r, selections.rank(a));
+                    assertArrayEquals(a, selections.unrank(r));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCombinationsLexicographic() {
+        for (int n = 0; n <= 8; n++) {
+            for (int k = 0; k <= n; k++) {
+                Selections selections = Selections.combinations(n, k);
+                List<int[]> all = selections.stream().toList();
+                assertEquals(selections.count(), all.size());
+                for (int r = 0; r < all.size(); r++) {
+                    int[] c = all.get(r);
+                    if (r > 0)
+                        assertTrue(Arrays.compare(all.get(r - 1), c) < 0);
+                    assertEquals(r, selections.rank(c));
+                    assertArrayEquals(c, selections.unrank(r));
+                }
+            }
+        }
+    }
+
+    /* k = n is the symmetric group */
+    @Test
+    void testSymmetricGroup() {
+        assertEquals(120, Selections.permutations(5, 5).stream()
+                .map(a -> Permutation.taking(ArrayUtil.range(5)).to(a))
+                .distinct()
+                .count());
+    }
+
+    @Test
+    void testParallel() {
+        Selections selections = Selections.permutations(9, 5);
+        List<String> sequential = selections.stream().map(Arrays::toString).toList();
+        List<String> parallel = selections.stream().parallel().map(Arrays::toString).collect(Collectors.toList());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testRange() {
+        Selections selections = Selections.combinations(30, 4);
+        List<int[]> parts = new ArrayList<>();
+        long step = selections.count() / 3;
+        parts.addAll(selections.stream(0, step).toList());
+        parts.addAll(selections.stream(step, 2 * step).toList());
+        parts.addAll(selections.stream(2 * step, selections.count()).toList());
+        List<int[]> all = selections.stream().toList();
+        assertEquals(all.size(), parts.size());
+        for (int i = 0; i < all.size(); i++)
+            assertArrayEquals(all.get(i), parts.get(i));
+        assertThrows(IllegalArgumentException.class, () -> selections.stream(2, 1));
+    }
+
+    @Test
+    void testInvalidSelection() {
+        assertThrows(IllegalArgumentException.class, () -> Selections.combinations(5, 2).rank(new int[]{3, 1}));
+        assertThrows(IllegalArgumentException.class, () -> Selections.combinations(5, 2).rank(new int[]{3, 3}));
+        assertThrows(IllegalArgumentException.class, () -> Selections.permutations(5, 2).rank(new int[]{3, 3}));
+        assertThrows(IllegalArgumentException.class, () -> Selections.permutations(5, 3).rank(new int[]{3, 1, 3}));
+        assertThrows(IllegalArgumentException.class, () -> Selections.permutations(5, 2).rank(new int[]{3, 5}));
+        assertThrows(IllegalArgumentException.class, () -> Selections.permutations(5, 2).unrank(20));
+    }
+}
@@ -0,0 +1,75 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SwapsTest {
+
+    @Test
+    void testHeap() {
+        for (int n = 0; n <= 7; n++) {
+            List<String> visited = visit(n, false);
+            assertEquals(Math.max(1, TestUtil.factorial(n)), visited.size());
+            assertEquals(visited.size(), new HashSet<>(visited).size());
+        }
+    }
+
+    @Test
+    void testPlainChanges() {
+        for (int n = 0; n <= 7; n++) {
+            List<String> visited = visit(n, true);
+            assertEquals(Math.max(1, TestUtil.factorial(n)), visited.size());
+            assertEquals(visited.size(), new HashSet<>(visited).size());
+        }
+    }
+
+    @Test
+    void testPlainChangesOrder() {
+        assertEquals(List.of("abc", "acb", "cab", "cba", "bca", "bac"), visit(3, true));
+    }
+
+    /* the signature alternates with each swap */
+    @Test
+    void testSignature() {
+        int[] a = ArrayUtil.range(5);
+        Set<Permutation> seen = new HashSet<>();
+        int[] sign = {1};
+        Permutation.visitSwaps(5, (i, j) -> {
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+            sign[0] = -sign[0];
+            Permutation p = Permutation.taking(ArrayUtil.range(5)).to(a);
+            assertEquals(sign[0], p.signature());
+            assertTrue(seen.add(p));
+        });
+        assertEquals(119, seen.size());
+    }
+
+    private static List<String> visit(int n, boolean adjacent) {
+        char[] state = TestUtil.symbols(n).stream().reduce("", String::concat).toCharArray();
+        List<String> result = new ArrayList<>();
+        result.add(new String(state));
+        SwapVisitor visitor = (i, j) -> {
+            assertTrue(i < j);
+            if (adjacent)
+                assertEquals(i + 1, j);
+            char tmp = state[i];
+            state[i] = state[j];
+            state[j] = tmp;
+            result.add(new String(state));
+        };
+        if (adjacent)
+            Permutation.visitAdjacentSwaps(n, visitor);
+        else
+            Permutation.visitSwaps(n, visitor);
+        return result;
+    }
+}
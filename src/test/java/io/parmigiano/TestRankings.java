@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.IntFunction;
@@ -12,8 +13,6 @@ import java.util.stream.IntStream;
 
 import static io.parmigiano.Rankings.insert;
 import static io.parmigiano.Rankings.nextOffset;
-import static io.parmigiano.Rankings.shift;
-import static io.parmigiano.Rankings.unshift;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -181,23 +180,6 @@ class TestRankings {
                 .map(i -> shift(unshift(i))).toArray());
     }
 
-    @Test
-    void testNextOffsetList() {
-        List<Integer> sorted = List.of(0, 0, 1, 3, 3, 3, 4, 4);
-        assertEquals(1, nextOffset(sorted, 0, 0, Integer::equals));
-        assertEquals(-1, nextOffset(sorted, 1, 0, Integer::equals));
-        assertEquals(0, nextOffset(sorted, 2, 0, Integer::equals));
-        assertEquals(1, nextOffset(sorted, 3, 0, Integer::equals));
-        assertEquals(2, nextOffset(sorted, 3, 1, Integer::equals));
-        assertEquals(0, nextOffset(sorted, 3, 2, Integer::equals));
-        assertEquals(1, nextOffset(sorted, 4, 0, Integer::equals));
-        assertEquals(-1, nextOffset(sorted, 4, 1, Integer::equals));
-        assertEquals(-1, nextOffset(sorted, 5, 0, Integer::equals));
-        assertEquals(-2, nextOffset(sorted, 5, -1, Integer::equals));
-        assertEquals(1, nextOffset(sorted, 6, 0, Integer::equals));
-        assertEquals(-1, nextOffset(sorted, 7, 0, Integer::equals));
-    }
-
     @Test
     void testSorts() {
         int[] ranking = {0, 3, 1, 4, 2};
@@ -215,4 +197,119 @@ class TestRankings {
             assertTrue(TestUtil.sorts(ranking, a));
         }
     }
+
+    /* encodes an offset as a non-zero number */
+    private static int shift(int i) {
+        return i >= 0 ? i + 1 : i;
+    }
+
+    private static int unshift(int shifted) {
+        if (shifted == 0) {
+            throw new IllegalArgumentException("zero is not allowed");
+        }
+        return shifted > 0 ? shifted - 1 : shifted;
+    }
+
+    /* reference implementation that walks the run of duplicates via nextOffset */
+    private static int[] sortingByOffsets(int[] a) {
+        int[] sorted = ArrayUtil.sortedCopy(a);
+        int[] ranking = new int[a.length];
+        int[] offsets = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            int idx = Arrays.binarySearch(sorted, a[i]);
+            int offset = offsets[idx] == 0 ? 0 : nextOffset(sorted, idx, unshift(offsets[idx]));
+            ranking[i] = idx + offset;
+            offsets[idx] = shift(offset);
+        }
+        return ranking;
+    }
+
+    @Test
+    void testSortingSameAsOffsets() {
+        for (int __ = 0; __ < 100; __++) {
+            int[] a = TestUtil.randomNumbers(ThreadLocalRandom.current().nextInt(20), ThreadLocalRandom.current().nextInt(1000));
+            int[] expected = sortingByOffsets(a);
+            assertArrayEquals(expected, Rankings.sorting(a));
+            List<Integer> boxed = Arrays.stream(a).boxed().toList();
+            assertArrayEquals(expected, Rankings.sorting(boxed));
+            assertArrayEquals(expected, Rankings.sorting(boxed, Integer::compare));
+        }
+    }
+
+    @Test
+    void testSortLongRuns() {
+        int[] a = new int[1_000_000];
+        for (int i = 0; i < a.length; i += 1000)
+            a[i] = i % 3 + 1;
+        int[] ranking = Rankings.sorting(a);
+        assertTrue(TestUtil.isSorted(TestUtil.applyRanking(ranking, a)));
+        assertArrayEquals(sortingByOffsets(a), ranking);
+    }
+
+    @Test
+    void testSortingTopK() {
+        for (int __ = 0; __ < 100; __++) {
+            int[] a = TestUtil.randomNumbers(-50, 50, ThreadLocalRandom.current().nextInt(200));
+            int k = ThreadLocalRandom.current().nextInt(a.length + 1);
+            int[] ranking = Rankings.sortingTopK(a, k);
+            Rankings.checkRanking(ranking);
+            int[] expected = Arrays.copyOf(Permutation.sorting(a).apply(a), k);
+            assertArrayEquals(expected, Arrays.copyOf(TestUtil.applyRanking(ranking, a), k));
+            List<Integer> boxed = Arrays.stream(a).boxed().toList();
+            assertArrayEquals(ranking, Rankings.sortingTopK(boxed, k, Integer::compare));
+        }
+    }
+
+    @Test
+    void testSortingTopKStable() {
+        int[] a = {3, 1, 2, 1, 0, 2};
+        assertArrayEquals(new int[]{3, 1, 4, 2, 0, 5}, Rankings.sortingTopK(a, 3));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, Rankings.sortingTopK(a, 0));
+        assertArrayEquals(Rankings.sorting(new int[]{3, 1, 2, 4, 0}), Rankings.sortingTopK(new int[]{3, 1, 2, 4, 0}, 5));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.sortingTopK(a, 7));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.sortingTopK(a, -1));
+    }
+
+    @Test
+    void testPermutationSortingTopK() {
+        List<String> a = List.of("d", "b", "e", "a", "c");
+        assertEquals(List.of("a", "b"), Permutation.sortingTopK(a, 2).apply(a).subList(0, 2));
+        assertEquals(List.of("e", "d"), Permutation.sortingTopK(a, 2, Comparator.<String>reverseOrder()).apply(a).subList(0, 2));
+        assertArrayEquals(new int[]{-1, 0}, Arrays.copyOf(Permutation.sortingTopK(new int[]{5, 0, -1, 9}, 2).apply(new int[]{5, 0, -1, 9}), 2));
+    }
+
+    @Test
+    void testMerging() {
+        for (int __ = 0; __ < 100; __++) {
+            int k = 1 + ThreadLocalRandom.current().nextInt(10);
+            int[] runBoundaries = new int[k + 1];
+            for (int r = 1; r <= k; r++)
+                runBoundaries[r] = runBoundaries[r - 1] + ThreadLocalRandom.current().nextInt(20);
+            int[] data = TestUtil.randomNumbers(10, runBoundaries[k]);
+            for (int r = 0; r < k; r++)
+                Arrays.sort(data, runBoundaries[r], runBoundaries[r + 1]);
+            int[] ranking = Rankings.merging(data, runBoundaries);
+            assertArrayEquals(Rankings.sorting(data.length, (i, j) -> Integer.compare(data[i], data[j])), ranking);
+            assertArrayEquals(ranking, Rankings.merging(Arrays.stream(data).boxed().toList(), runBoundaries, Integer::compare));
+        }
+    }
+
+    @Test
+    void testMergingStable() {
+        int[] data = {1, 3, 3, 0, 3, 4, 3};
+        assertArrayEquals(new int[]{1, 2, 3, 0, 4, 6, 5}, Rankings.merging(data, new int[]{0, 3, 3, 6, 7}));
+        assertArrayEquals(new int[0], Rankings.merging(new int[0], new int[]{0}));
+        List<String> strings = List.of("b", "d", "a", "c");
+        assertEquals(List.of("a", "b", "c", "d"), Permutation.merging(strings, new int[]{0, 2, 4}).apply(strings));
+    }
+
+    @Test
+    void testMergingInvalid() {
+        int[] data = {1, 3, 0, 2};
+        assertThrows(IllegalArgumentException.class, () -> Rankings.merging(data, new int[]{0, 2}));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.merging(data, new int[]{1, 4}));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.merging(data, new int[]{0, 3, 2, 4}));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.merging(data, new int[]{0, 4}));
+        assertThrows(IllegalArgumentException.class, () -> Rankings.merging(data, new int[0]));
+    }
 }
@@ -0,0 +1,124 @@
+package io.parmigiano;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.parmigiano.Permutation.cycle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordSolverTest {
+
+    @Test
+    void testIdentity() {
+        WordSolver.Solution solution = WordSolver.solve(Permutation.identity(), cycle(0, 1));
+        assertTrue(solution.found());
+        assertArrayEquals(new int[0], solution.word());
+    }
+
+    @Test
+    void testUnreachable() {
+        assertFalse(WordSolver.solve(cycle(0, 1), cycle(0, 1, 2)).found());
+        assertFalse(WordSolver.solve(cycle(3, 4), cycle(0, 1, 2)).found());
+        assertFalse(WordSolver.solve(cycle(0, 1)).found());
+    }
+
+    @Test
+    void testTooManyPoints() {
+        assertThrows(IllegalArgumentException.class, () -> WordSolver.solve(cycle(0, 1), cycle(0, 21)));
+    }
+
+    /* the word length is the distance in the Cayley graph, for every element of S5 */
+    @Test
+    void testShortest() {
+        Permutation[] generators = {cycle(0, 1), cycle(0, 1, 2, 3, 4)};
+        Map<Permutation, Integer> distance = distances(generators);
+        assertEquals(120, distance.size());
+        for (Map.Entry<Permutation, Integer> e : distance.entrySet()) {
+            WordSolver.Solution solution = WordSolver.solve(e.getKey(), generators);
+            assertTrue(solution.found());
+            assertEquals((int) e.getValue(), solution.word().length);
+            assertEquals(e.getKey(), product(solution.word(), generators));
+        }
+    }
+
+    @Test
+    void testLargerGroup() {
+        Permutation[] generators = {cycle(0, 1, 2, 3, 4, 5, 6, 7, 8), cycle(0, 1, 2)};
+        Permutation target = cycle(7, 8).compose(cycle(3, 4));
+        WordSolver.Solution solution = WordSolver.solve(target, generators);
+        assertTrue(solution.found());
+        assertEquals(target, product(solution.word(), generators));
+        assertEquals((int) distances(generators).get(target), solution.word().length);
+        assertTrue(solution.forwardStates() + solution.backwardStates() < 362880);
+    }
+
+    @Test
+    void testTableChoice() {
+        // 9! states at 2 bits: dense, indexed by rank
+        StateTable dense = StateTable.create(362880, 3, 2);
+        assertTrue(dense.isDense());
+        dense.set(362879, 3);
+        dense.set(5, 1);
+        assertEquals(3, dense.get(362879));
+        assertEquals(1, dense.get(5));
+        assertEquals(0, dense.get(6));
+        // 20! states: sparse
+        StateTable sparse = StateTable.create(2432902008176640000L, 3, 2);
+        assertFalse(sparse.isDense());
+        sparse.set(2432902008176639999L, 2);
+        assertEquals(2, sparse.get(2432902008176639999L));
+        assertEquals(0, sparse.get(0));
+    }
+
+    /* small groups on many points */
+    @Test
+    void testManyPoints() {
+        Permutation c = cycle(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+        WordSolver.Solution solution = WordSolver.solve(c.pow(3), c);
+        assertArrayEquals(new int[]{0, 0, 0}, solution.word());
+        assertTrue(solution.forwardStates() + solution.backwardStates() <= 14);
+
+        Permutation t = cycle(0, 19);
+        assertArrayEquals(new int[]{0}, WordSolver.solve(t, t).word());
+
+        Permutation[] generators = {cycle(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19), cycle(0, 1)};
+        Permutation target = cycle(1, 2);
+        WordSolver.Solution s20 = WordSolver.solve(target, generators);
+        assertTrue(s20.found());
+        assertEquals(target, product(s20.word(), generators));
+        assertTrue(s20.word().length <= 21); // c t c^19
+    }
+
+    private static Permutation product(int[] word, Permutation[] generators) {
+        Permutation result = Permutation.identity();
+        for (int g : word) {
+            result = result.compose(generators[g]);
+        }
+        return result;
+    }
+
+    private static Map<Permutation, Integer> distances(Permutation[] generators) {
+        Map<Permutation, Integer> distance = new HashMap<>();
+        ArrayDeque<Permutation> queue = new ArrayDeque<>();
+        distance.put(Permutation.identity(), 0);
+        queue.add(Permutation.identity());
+        while (!queue.isEmpty()) {
+            Permutation p = queue.poll();
+            for (Permutation g : generators) {
+                Permutation q = p.compose(g);
+                if (!distance.containsKey(q)) {
+                    distance.put(q, distance.get(p) + 1);
+                    queue.add(q);
+                }
+            }
+        }
+        return distance;
+    }
+}